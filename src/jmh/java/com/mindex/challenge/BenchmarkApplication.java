@@ -0,0 +1,99 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.impl.OrgChartIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Starts the application for the benchmarks and fills it with synthetic org charts.
+ */
+public final class BenchmarkApplication {
+    private static final int BATCH_SIZE = 10_000;
+
+    /**
+     * Where the application keeps its data.
+     */
+    public enum Backend {
+        /** The in-process repositories, which leave out the cost of the database */
+        INPROCESS,
+        /** The embedded Mongo server, reached over loopback TCP */
+        MONGO
+    }
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without a web server.
+     *
+     * @param args further application arguments, e.g. --challenge.reporting.traversal=PARALLEL
+     */
+    public static ConfigurableApplicationContext start(Backend backend, String... args) {
+        // Passed as arguments so they take precedence over application.properties
+        String[] applicationArgs = Stream.concat(Stream.of("--logging.level.root=WARN", "--logging.level.com.mindex=WARN"),
+                                                 Stream.of(args))
+                                         .toArray(String[]::new);
+        return new SpringApplicationBuilder(ChallengeApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles((backend == Backend.INPROCESS) ? new String[] { "inprocess" } : new String[0])
+                .run(applicationArgs);
+    }
+
+    /**
+     * Builds a complete tree of employees e0 to e(employeeCount - 1), each manager having span direct reports, so the
+     * span sets how wide and deep the org chart is.
+     *
+     * @param shared whether the last employee also reports to e0, which keeps the index from answering reporting
+     *               structures with its materialized counts
+     */
+    public static List<Employee> orgChart(int employeeCount, int span, boolean shared) {
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        for (int manager = 0; manager < employeeCount; manager++) {
+            long first = (long) manager * span + 1;
+            long last = Math.min(employeeCount, first + span);
+            List<Employee> directReports = new ArrayList<>();
+            for (long report = first; report < last; report++) {
+                directReports.add(reference("e" + report));
+            }
+            if (shared && manager == 0 && last < employeeCount) {
+                directReports.add(reference("e" + (employeeCount - 1)));
+            }
+
+            Employee employee = reference("e" + manager);
+            employee.setFirstName("First" + manager);
+            employee.setLastName("Last" + manager);
+            employee.setPosition((directReports.isEmpty()) ? "Developer" : "Manager");
+            employee.setDepartment("Engineering");
+            employee.setDirectReports(directReports);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    /**
+     * Persists and indexes employees the way the snapshots are loaded at startup.
+     */
+    public static void load(ConfigurableApplicationContext context, List<Employee> employees) {
+        EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+        OrgChartIndex orgChartIndex = context.getBean(OrgChartIndex.class);
+        for (int from = 0; from < employees.size(); from += BATCH_SIZE) {
+            List<Employee> batch = employees.subList(from, Math.min(employees.size(), from + BATCH_SIZE));
+            employeeRepository.insert(batch);
+            orgChartIndex.loadWithoutCounts(batch);
+        }
+        orgChartIndex.recount();
+    }
+
+    public static Employee reference(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        return employee;
+    }
+}
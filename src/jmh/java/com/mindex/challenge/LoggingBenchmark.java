@@ -0,0 +1,123 @@
+package com.mindex.challenge;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.mindex.challenge.controller.EmployeeController;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what logging costs the employee endpoints by calling the controller directly with the application's
+ * logging at INFO, at DEBUG written on the request thread, and at DEBUG written from a background thread as
+ * logback-spring.xml does.  The logs are written to a file rather than the console so they don't mix with the
+ * benchmark output.
+ *
+ * Once the background thread falls behind, the async appender drops DEBUG events rather than slowing the requests
+ * down, which is what happens in the application as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+    private static final int EMPLOYEE_COUNT = 10_000;
+
+    /**
+     * How the application logs.
+     */
+    public enum Logging {
+        INFO,
+        DEBUG_SYNC,
+        DEBUG_ASYNC
+    }
+
+    @Param({ "INFO", "DEBUG_SYNC", "DEBUG_ASYNC" })
+    private Logging logging;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeController employeeController;
+    private Path logFile;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkApplication.start(BenchmarkApplication.Backend.INPROCESS);
+        BenchmarkApplication.load(context, BenchmarkApplication.orgChart(EMPLOYEE_COUNT, 8, false));
+        employeeController = context.getBean(EmployeeController.class);
+
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(logFile.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if (logging == Logging.DEBUG_ASYNC) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(loggerContext);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.addAppender(fileAppender);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.addAppender(appender);
+        loggerContext.getLogger("com.mindex").setLevel((logging == Logging.INFO) ? Level.INFO : Level.DEBUG);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)
+                                                          .detachAndStopAllAppenders();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public Employee read() {
+        return employeeController.read("e" + ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT), null);
+    }
+
+    @Benchmark
+    public ReportingStructure getReportingStructure() {
+        return employeeController.reportingStructure("e" + ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT));
+    }
+}
@@ -0,0 +1,111 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.BenchmarkApplication;
+import com.mindex.challenge.dao.inprocess.InProcessEmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the latency of the employee repository calls made by the service when going through the embedded Mongo
+ * server over loopback TCP with the in-process repository.  Sampled, so the results include the p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+    private static final int EMPLOYEE_COUNT = 10_000;
+
+    /**
+     * The repository measured.
+     */
+    public enum Repository {
+        LOOPBACK,
+        INPROCESS
+    }
+
+    @Param({ "LOOPBACK", "INPROCESS" })
+    private Repository repository;
+
+    private MongoServer server;
+    private MongoClient client;
+    private EmployeeRepository employeeRepository;
+
+    @Setup
+    public void setup() {
+        if (repository == Repository.LOOPBACK) {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress serverAddress = server.bind();
+            client = MongoClients.create(String.format("mongodb://%s:%d",
+                    serverAddress.getHostName(), serverAddress.getPort()));
+            MongoTemplate mongoTemplate = new MongoTemplate(client, "benchmark");
+            employeeRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(
+                    EmployeeRepository.class,
+                    RepositoryComposition.RepositoryFragments.just(new EmployeeRepositoryCustomImpl(mongoTemplate)));
+        } else {
+            employeeRepository = new InProcessEmployeeRepository();
+        }
+
+        employeeRepository.insert(BenchmarkApplication.orgChart(EMPLOYEE_COUNT, 1, false));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+            server.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Employee insert() {
+        Employee employee = BenchmarkApplication.reference(UUID.randomUUID().toString());
+        employee.setFirstName("First");
+        employee.setLastName("Last");
+        employee.setPosition("Developer");
+        employee.setDepartment("Engineering");
+        return employeeRepository.insert(employee);
+    }
+
+    @Benchmark
+    public Employee findByEmployeeId() {
+        return employeeRepository.findByEmployeeId("e" + ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT));
+    }
+
+    @Benchmark
+    public List<Employee> findByEmployeeIdIn() {
+        int from = ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT - 10);
+        List<String> ids = new ArrayList<>(10);
+        for (int i = from; i < from + 10; i++) {
+            ids.add("e" + i);
+        }
+        return employeeRepository.findByEmployeeIdIn(ids);
+    }
+}
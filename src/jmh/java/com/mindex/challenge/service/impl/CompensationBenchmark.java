@@ -0,0 +1,104 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.BenchmarkApplication;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures compensation lookups for an employee with a long compensation history, one record per day.
+ *
+ * The current compensation is normally a cache hit; {@link #currentFromDatabase} is what a miss costs.  Point-in-time
+ * lookups are answered by the history index, which loads the employee's records during setup; {@link #history} is
+ * what loading them costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompensationBenchmark {
+    private static final LocalDate FIRST_EFFECTIVE_DATE = LocalDate.of(2000, 1, 1);
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({ "INPROCESS", "MONGO" })
+    private BenchmarkApplication.Backend backend;
+
+    @Param({ "10", "1000", "100000" })
+    private int history;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private CompensationRepository compensationRepository;
+    private Employee employee;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(backend);
+        employee = BenchmarkApplication.orgChart(1, 1, false).get(0);
+        BenchmarkApplication.load(context, List.of(employee));
+        employeeService = context.getBean(EmployeeService.class);
+        compensationRepository = context.getBean(CompensationRepository.class);
+
+        List<Compensation> compensations = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < history; i++) {
+            compensations.add(new Compensation("c" + i, employee.getEmployeeId(), 50_000.0 + i,
+                                               FIRST_EFFECTIVE_DATE.plusDays(i)));
+            if (compensations.size() == BATCH_SIZE || i == history - 1) {
+                compensationRepository.insert(compensations);
+                compensations.clear();
+            }
+        }
+
+        // Load the history into the index, so asOf only measures lookups
+        employeeService.getCompensation(employee, FIRST_EFFECTIVE_DATE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Compensation> current() {
+        return employeeService.getCompensation(employee);
+    }
+
+    @Benchmark
+    public Optional<Compensation> currentFromDatabase() {
+        return compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(employee.getEmployeeId());
+    }
+
+    @Benchmark
+    public Optional<Compensation> asOf() {
+        return employeeService.getCompensation(employee,
+                FIRST_EFFECTIVE_DATE.plusDays(ThreadLocalRandom.current().nextInt(history)));
+    }
+
+    @Benchmark
+    public List<Compensation> history() {
+        return compensationRepository.findByEmployeeIdOrderByEffectiveDateDesc(employee.getEmployeeId());
+    }
+}
@@ -0,0 +1,88 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.BenchmarkApplication;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating and updating employees in an org chart of 10,000 employees, including keeping the caches and
+ * the org chart index up to date.  Every employee created is kept, so the org chart grows over the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeWriteBenchmark {
+    private static final int EMPLOYEE_COUNT = 10_000;
+    private static final int SPAN = 8;
+
+    @Param({ "INPROCESS", "MONGO" })
+    private BenchmarkApplication.Backend backend;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private List<Employee> orgChart;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(backend);
+        orgChart = BenchmarkApplication.orgChart(EMPLOYEE_COUNT, SPAN, false);
+        BenchmarkApplication.load(context, orgChart);
+        employeeService = context.getBean(EmployeeService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Creates a manager of two existing employees.
+     */
+    @Benchmark
+    public Employee create() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Employee employee = new Employee();
+        employee.setFirstName("First");
+        employee.setLastName("Last");
+        employee.setPosition("Manager");
+        employee.setDepartment("Engineering");
+        employee.setDirectReports(List.of(BenchmarkApplication.reference("e" + random.nextInt(EMPLOYEE_COUNT)),
+                                          BenchmarkApplication.reference("e" + random.nextInt(EMPLOYEE_COUNT))));
+        return employeeService.create(employee);
+    }
+
+    /**
+     * Changes the position of an existing employee, keeping their direct reports.
+     */
+    @Benchmark
+    public Employee update() {
+        Employee existing = orgChart.get(ThreadLocalRandom.current().nextInt(EMPLOYEE_COUNT));
+        Employee employee = BenchmarkApplication.reference(existing.getEmployeeId());
+        employee.setFirstName(existing.getFirstName());
+        employee.setLastName(existing.getLastName());
+        employee.setPosition("Senior " + existing.getPosition());
+        employee.setDepartment(existing.getDepartment());
+        employee.setDirectReports(existing.getDirectReports());
+        return employeeService.update(employee);
+    }
+}
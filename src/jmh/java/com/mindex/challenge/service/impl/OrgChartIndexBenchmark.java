@@ -0,0 +1,63 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.BenchmarkApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential and fork-join walks of the org chart index to find where the parallel walk starts to pay
+ * off, e.g. {@code gradlew jmh -PjmhArgs="OrgChartIndexBenchmark -p threshold=64,512,4096"}.
+ *
+ * Each org chart is a complete tree with the given span of control plus one shared report, which keeps the index
+ * from answering with its materialized counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OrgChartIndexBenchmark {
+
+    @Param({ "1000", "10000", "100000", "1000000" })
+    private int employees;
+
+    @Param({ "8", "64", "1024" })
+    private int span;
+
+    @Param({ "512" })
+    private int threshold;
+
+    private OrgChartIndex index;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        index = new OrgChartIndex();
+        index.load(BenchmarkApplication.orgChart(employees, span, true));
+        pool = ForkJoinPool.commonPool();
+    }
+
+    @Benchmark
+    public Optional<ReportTraversal> sequential() {
+        return index.traverse("e0", Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public Optional<ReportTraversal> parallel() {
+        return index.traverseInParallel("e0", Integer.MAX_VALUE, Integer.MAX_VALUE, pool, threshold);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.BenchmarkApplication;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.EmployeeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reporting structures of the top of synthetic org charts.  A span of 2 gives a deep, narrow org chart and a
+ * span of 1024 a flat, wide one.  Without shared reports the index answers from its materialized counts; with one
+ * shared report every request walks the whole org chart.
+ *
+ * The data is kept in-process since reporting structures are answered by the index rather than the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportingStructureBenchmark {
+
+    @Param({ "1000", "100000", "1000000" })
+    private int employees;
+
+    @Param({ "2", "32", "1024" })
+    private int span;
+
+    @Param({ "false", "true" })
+    private boolean shared;
+
+    @Param({ "SEQUENTIAL" })
+    private EmployeeServiceImpl.TraversalMode traversal;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private Employee root;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplication.start(BenchmarkApplication.Backend.INPROCESS,
+                "--challenge.reporting.traversal=" + traversal,
+                "--challenge.reporting.max-reports=" + employees);
+        BenchmarkApplication.load(context, BenchmarkApplication.orgChart(employees, span, shared));
+        employeeService = context.getBean(EmployeeService.class);
+        root = BenchmarkApplication.reference("e0");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReportingStructure getReportingStructure() {
+        return employeeService.getReportingStructure(root);
+    }
+}
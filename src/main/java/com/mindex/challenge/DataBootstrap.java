@@ -1,19 +1,35 @@
 package com.mindex.challenge;
 
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
-import jakarta.annotation.PostConstruct;
+import com.mindex.challenge.service.impl.OrgChartIndex;
+import com.mindex.challenge.snapshot.BinarySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
-public class DataBootstrap {
+public class DataBootstrap implements SmartInitializingSingleton {
+    private static final Logger LOG = LoggerFactory.getLogger(DataBootstrap.class);
+
     private static final String DATASTORE_LOCATION = "/static/employee_database.json";
     private static final String COMPENSATION_DATASTORE_LOCATION = "/static/compensation_database.json";
 
@@ -23,45 +39,159 @@ public class DataBootstrap {
     @Autowired
     private CompensationRepository compensationRepository;
 
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
     @Autowired
     private ObjectMapper objectMapper;
 
-    @PostConstruct
-    public void init() {
+    /**
+     * Snapshot of employees to load instead of the bundled one, as a JSON array or newline-delimited JSON
+     */
+    @Value("${challenge.bootstrap.employee-file:}")
+    private String employeeFile;
+
+    /**
+     * Snapshot of compensation records to load instead of the bundled one, as a JSON array or newline-delimited JSON
+     */
+    @Value("${challenge.bootstrap.compensation-file:}")
+    private String compensationFile;
+
+    @Value("${challenge.bootstrap.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Binary snapshot written by the snapshot endpoint; restored instead of the JSON snapshots when it exists
+     */
+    @Value("${challenge.snapshot.file:}")
+    private String snapshotFile;
+
+    /**
+     * Loads the snapshots once every bean has been created but before the server starts taking requests.  Loading
+     * from a @PostConstruct method would deadlock, since the repositories can't be used from a second thread while
+     * the context is still creating beans.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        // A persistent backend still holds the data from the last run
+        if (employeeRepository.count() > 0 || compensationRepository.count() > 0) {
+            migrateDirectReports();
+            indexPersistedEmployees();
+            return;
+        }
+
+        if (!snapshotFile.isBlank() && Files.exists(Path.of(snapshotFile))) {
+            restoreSnapshot(Path.of(snapshotFile));
+            return;
+        }
+
+        // The compensation records don't refer to the employees, so both snapshots can be loaded at once
+        CompletableFuture<Void> compensations = CompletableFuture.runAsync(this::initCompensations);
         initEmployees();
-        initCompensations();
+        compensations.join();
     }
 
-    private void initEmployees() {
-        InputStream inputStream = this.getClass().getResourceAsStream(DATASTORE_LOCATION);
+    /**
+     * Rewrites employees persisted before direct reports were stored as IDs; they can't be read until they are.
+     */
+    private void migrateDirectReports() {
+        long migrated = employeeRepository.migrateDirectReports();
+        if (migrated > 0) {
+            LOG.info("Migrated direct reports of [{}] employees to employee IDs", migrated);
+        }
+    }
 
-        Employee[] employees = null;
+    private void indexPersistedEmployees() {
+        int count;
+        try (Stream<Employee> employees = employeeRepository.streamAllBy()) {
+            count = forEachBatch(employees.iterator(), orgChartIndex::loadWithoutCounts);
+        }
 
+        orgChartIndex.recount();
+        LOG.info("Indexed [{}] persisted employees", count);
+    }
+
+    private void restoreSnapshot(Path file) {
         try {
-            employees = objectMapper.readValue(inputStream, Employee[].class);
+            BinarySnapshot.Summary summary = BinarySnapshot.read(file, batchSize,
+                    employees -> {
+                        employeeRepository.insert(employees);
+                        orgChartIndex.loadWithoutCounts(employees);
+                    },
+                    compensationRepository::insert);
+
+            orgChartIndex.recount();
+            LOG.info("Restored [{}] employees and [{}] compensation records from snapshot [{}]",
+                    summary.employees(), summary.compensations(), file);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
 
-        for (Employee employee : employees) {
-            employeeRepository.insert(employee);
-        }
+    private void initEmployees() {
+        int count = load(employeeFile, DATASTORE_LOCATION, Employee.class, employees -> {
+            employeeRepository.insert(employees);
+            orgChartIndex.loadWithoutCounts(employees);
+        });
+
+        orgChartIndex.recount();
+        LOG.info("Loaded [{}] employees", count);
     }
 
     private void initCompensations() {
-        InputStream inputStream = this.getClass().getResourceAsStream(COMPENSATION_DATASTORE_LOCATION);
-
-        Compensation[] compensations = null;
+        int count = load(compensationFile, COMPENSATION_DATASTORE_LOCATION, Compensation.class, compensationRepository::insert);
+        LOG.info("Loaded [{}] compensation records", count);
+    }
 
-        try {
-            compensations = objectMapper.readValue(inputStream, Compensation[].class);
+    /**
+     * Reads a snapshot one record at a time and hands the records on in batches, so no more than one batch is held in
+     * memory however large the snapshot is.
+     *
+     * @param file path of the snapshot to load; the bundled resource if empty
+     * @param resource the bundled snapshot
+     * @param batchConsumer saves a batch of records
+     * @return the number of records loaded
+     */
+    private <T> int load(String file, String resource, Class<T> type, Consumer<List<T>> batchConsumer) {
+        try (InputStream inputStream = open(file, resource);
+             MappingIterator<T> records = objectMapper.readerFor(type).readValues(inputStream)) {
+            return forEachBatch(records, batchConsumer);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Hands the records on in batches.
+     *
+     * @return the number of records
+     */
+    private <T> int forEachBatch(Iterator<T> records, Consumer<List<T>> batchConsumer) {
+        int count = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        while (records.hasNext()) {
+            batch.add(records.next());
+            if (batch.size() == batchSize) {
+                batchConsumer.accept(batch);
+                count += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch);
+            count += batch.size();
+        }
+
+        return count;
+    }
 
-        for (Compensation compensation : compensations) {
-            compensationRepository.insert(compensation);
+    private InputStream open(String file, String resource) throws IOException {
+        if (file == null || file.isBlank()) {
+            return this.getClass().getResourceAsStream(resource);
         }
 
+        LOG.info("Loading snapshot [{}]", file);
+        return new MappedFileInputStream(Path.of(file));
     }
 }
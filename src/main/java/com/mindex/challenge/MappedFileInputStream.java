@@ -0,0 +1,76 @@
+package com.mindex.challenge;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file through read-only memory mappings, so a large snapshot is paged in by the operating system instead of
+ * being copied through heap buffers.  A mapping can't exceed 2GB, so the file is mapped one region at a time.
+ */
+class MappedFileInputStream extends InputStream {
+    private static final long DEFAULT_REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long regionSize;
+    private long position;
+    private MappedByteBuffer region;
+
+    MappedFileInputStream(Path path) throws IOException {
+        this(path, DEFAULT_REGION_SIZE);
+    }
+
+    MappedFileInputStream(Path path, long regionSize) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.regionSize = regionSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextRegion() ? region.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextRegion()) {
+            return -1;
+        }
+
+        int count = Math.min(length, region.remaining());
+        region.get(bytes, offset, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping itself is released once the buffer is garbage collected
+        region = null;
+        channel.close();
+    }
+
+    /**
+     * Maps the next region of the file once the current one has been read.
+     *
+     * @return false at the end of the file
+     */
+    private boolean nextRegion() throws IOException {
+        if (region != null && region.hasRemaining()) {
+            return true;
+        }
+
+        long size = Math.min(regionSize, channel.size() - position);
+        if (size <= 0) {
+            return false;
+        }
+
+        region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        position += size;
+        return true;
+    }
+}
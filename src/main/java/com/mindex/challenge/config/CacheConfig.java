@@ -0,0 +1,73 @@
+package com.mindex.challenge.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.impl.CompensationHistoryIndex;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-process caches in front of the repositories.  Every cache records statistics so they can be reported by the
+ * {@link com.mindex.challenge.controller.CacheController} and published as metrics.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Employees by employeeId, read through by the employee service and invalidated whenever an employee is written.
+     */
+    @Bean
+    public Cache<String, Employee> employeeCache(
+            @Value("${challenge.cache.employee.maximum-size:10000}") long maximumSize,
+            @Value("${challenge.cache.employee.expire-after-write:10m}") Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                       .maximumSize(maximumSize)
+                       .expireAfterWrite(expireAfterWrite)
+                       .recordStats()
+                       .build();
+    }
+
+    /**
+     * The current compensation of each employee by employeeId; empty if the employee has no compensation.  Kept up to
+     * date by the employee service as compensation is added, so entries don't expire.
+     */
+    @Bean
+    public Cache<String, Optional<Compensation>> currentCompensationCache(
+            @Value("${challenge.cache.compensation.maximum-size:10000}") long maximumSize) {
+        return Caffeine.newBuilder()
+                       .maximumSize(maximumSize)
+                       .recordStats()
+                       .build();
+    }
+
+    /**
+     * The compensation history of each employee by employeeId, held by the {@link CompensationHistoryIndex}.  Bounded
+     * by the number of employees rather than records: reloading a long history costs the most, so however long it is
+     * it has to stay cached.
+     */
+    @Bean
+    public Cache<String, CompensationHistoryIndex.History> compensationHistoryCache(
+            @Value("${challenge.cache.compensation-history.maximum-size:10000}") long maximumSize) {
+        return Caffeine.newBuilder()
+                       .maximumSize(maximumSize)
+                       .recordStats()
+                       .build();
+    }
+
+    /**
+     * Publishes the statistics of every cache, tagged with the cache's bean name.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(Map<String, Cache<?, ?>> caches) {
+        return registry -> caches.forEach((name, cache) -> CaffeineCacheMetrics.monitor(registry, cache, name));
+    }
+}
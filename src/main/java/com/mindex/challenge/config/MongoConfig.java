@@ -1,20 +1,102 @@
 package com.mindex.challenge.config;
 
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoBackend;
 import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.h2.H2Backend;
 import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 import org.springframework.lang.NonNull;
 
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Connects the repositories to MongoDB, unless the inprocess profile replaces them with in-process implementations.
+ * The blocking and reactive repositories use separate clients with the same settings, each with its own pool monitor;
+ * the reactive client and repositories are only created for the reactive profile.
+ */
 @EnableMongoRepositories(basePackageClasses = EmployeeRepository.class)
 @Configuration
+@Profile("!inprocess")
 public class MongoConfig extends AbstractMongoClientConfiguration {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoConfig.class);
+
+    /**
+     * Where the data is kept.
+     */
+    public enum Backend {
+        /** An embedded server holding everything on the heap; lost on restart */
+        MEMORY,
+        /** An embedded server storing the data in an H2 MVStore file, which is paged in as needed */
+        H2,
+        /** A separate MongoDB server */
+        EXTERNAL
+    }
+
+    @Value("${challenge.mongo.backend:MEMORY}")
+    private Backend backend;
+
+    @Value("${challenge.mongo.h2.file:challenge.mv}")
+    private String h2File;
+
+    @Value("${challenge.mongo.uri:}")
+    private String uri;
+
+    @Value("${challenge.mongo.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @Value("${challenge.mongo.pool.min-size:0}")
+    private int poolMinSize;
+
+    @Value("${challenge.mongo.pool.max-wait-time:2m}")
+    private Duration poolMaxWaitTime;
+
+    /** How long a connection may sit unused in the pool before it's closed; 0 to keep it open */
+    @Value("${challenge.mongo.pool.max-connection-idle-time:0s}")
+    private Duration poolMaxConnectionIdleTime;
+
+    /** Wire compressors to offer the server in order of preference: zstd, snappy or zlib */
+    @Value("${challenge.mongo.compressors:}")
+    private List<String> compressors;
+
+    @Value("${challenge.mongo.read-preference:primary}")
+    private String readPreference;
+
+    /**
+     * The driver's command and pool metrics.  Spring Boot registers these through settings customizers, which can't be
+     * used here since they depend on the settings being built.
+     */
+    @Autowired
+    private ObjectProvider<MongoMetricsCommandListener> commandMetrics;
+
+    @Autowired
+    private ObjectProvider<MongoMetricsConnectionPoolListener> poolMetrics;
+
+    /** The embedded server; null when connected to an external server */
+    private MongoServer server;
 
     @Override
     @NonNull
@@ -22,14 +104,118 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         return "test";
     }
 
+    /**
+     * Creates the indexes declared on the documents, such as the compensation history index, at startup.
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return true;
+    }
+
+    /**
+     * Starts the embedded server if there is one and builds the settings shared by the blocking and reactive clients.
+     */
+    @Bean
+    @Override
+    @NonNull
+    public MongoClientSettings mongoClientSettings() {
+        String mongoConnectionString = switch (backend) {
+            case MEMORY -> startServer(new MemoryBackend());
+            case H2 -> startServer(new H2Backend(h2File));
+            case EXTERNAL -> {
+                if (uri.isBlank()) {
+                    throw new IllegalStateException("challenge.mongo.uri is required for the EXTERNAL backend");
+                }
+                yield uri;
+            }
+        };
+
+        LOG.info("Using [{}] Mongo backend with a pool of up to [{}] connections", backend, poolMaxSize);
+
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoConnectionString));
+        commandMetrics.ifAvailable(builder::addCommandListener);
+        poolMetrics.ifAvailable(listener -> builder.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(listener)));
+
+        // The tuning properties take precedence over any options in the connection string
+        return builder
+                .applyToConnectionPoolSettings(pool -> pool
+                        .maxSize(poolMaxSize)
+                        .minSize(poolMinSize)
+                        .maxWaitTime(poolMaxWaitTime.toMillis(), TimeUnit.MILLISECONDS)
+                        .maxConnectionIdleTime(poolMaxConnectionIdleTime.toMillis(), TimeUnit.MILLISECONDS))
+                .compressorList(compressors.stream().map(MongoConfig::createCompressor).toList())
+                .readPreference(ReadPreference.valueOf(readPreference))
+                .build();
+    }
+
     @Override
     @NonNull
     public MongoClient mongoClient() {
-        MongoServer server = new MongoServer(new MemoryBackend());
-        InetSocketAddress serverAddress = server.bind();
-        String mongoConnectionString = String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
-        return MongoClients.create(mongoConnectionString);
+        return MongoClients.create(withPoolMonitor(mongoPoolMonitor()));
     }
-}
 
+    /**
+     * The client used by the reactive repositories.  Defined here since the one Spring Boot would create ignores the
+     * backend and connects to localhost.
+     */
+    @Bean
+    @Profile("reactive")
+    public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+        return com.mongodb.reactivestreams.client.MongoClients.create(withPoolMonitor(reactiveMongoPoolMonitor()));
+    }
 
+    @Bean
+    public MongoPoolMonitor mongoPoolMonitor() {
+        return new MongoPoolMonitor("blocking");
+    }
+
+    @Bean
+    @Profile("reactive")
+    public MongoPoolMonitor reactiveMongoPoolMonitor() {
+        return new MongoPoolMonitor("reactive");
+    }
+
+    /**
+     * Stops the embedded server, which for the H2 backend writes out any pending changes and closes the file.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * The shared settings with a monitor for one client's pool, so the blocking and reactive pools are counted apart.
+     */
+    private MongoClientSettings withPoolMonitor(MongoPoolMonitor monitor) {
+        return MongoClientSettings.builder(mongoClientSettings())
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(monitor))
+                .build();
+    }
+
+    private static MongoCompressor createCompressor(String name) {
+        return switch (name.trim().toLowerCase()) {
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+        };
+    }
+
+    private String startServer(MongoBackend mongoBackend) {
+        server = new MongoServer(mongoBackend);
+        InetSocketAddress serverAddress = server.bind();
+        return String.format("mongodb://%s:%d", serverAddress.getHostName(), serverAddress.getPort());
+    }
+
+    /**
+     * The repositories used by {@link com.mindex.challenge.service.impl.ReactiveEmployeeServiceImpl}.
+     */
+    @EnableReactiveMongoRepositories(basePackageClasses = ReactiveEmployeeRepository.class)
+    @Configuration
+    @Profile("reactive")
+    static class ReactiveRepositoriesConfig {
+    }
+}
@@ -0,0 +1,124 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.data.MongoPoolStatistics;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the Mongo connection pool so it can be sized against the number of request threads.  The counts are
+ * totals across the pools of every server one client is connected to; each client has its own monitor, and its metrics
+ * are tagged with the client's name.
+ *
+ * The check-out waits are also published as metrics; the size of the pool, the connections checked out and the wait
+ * queue are already published by Spring Boot as mongodb.driver.pool.*.
+ */
+public class MongoPoolMonitor implements ConnectionPoolListener, MeterBinder {
+
+    private final String client;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger waitQueueSize = new AtomicInteger();
+    private final LongAdder checkOuts = new LongAdder();
+    private final LongAdder checkOutFailures = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public MongoPoolMonitor(String client) {
+        this.client = client;
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        size.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        size.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waitQueueSize.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitQueueSize.decrementAndGet();
+        checkedOut.incrementAndGet();
+        checkOuts.increment();
+
+        long waitNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitQueueSize.decrementAndGet();
+        checkOutFailures.increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("challenge.mongo.pool.checkout", this,
+                              monitor -> monitor.checkOuts.sum(), monitor -> monitor.totalWaitNanos.sum(),
+                              TimeUnit.NANOSECONDS)
+                     .description("Time spent waiting to check a connection out of the pool")
+                     .tag("client", client)
+                     .register(registry);
+        TimeGauge.builder("challenge.mongo.pool.checkout.max", this, TimeUnit.NANOSECONDS,
+                          monitor -> monitor.maxWaitNanos.get())
+                 .description("Longest time spent waiting to check a connection out of the pool")
+                 .tag("client", client)
+                 .register(registry);
+        FunctionCounter.builder("challenge.mongo.pool.checkout.failures", this, monitor -> monitor.checkOutFailures.sum())
+                       .description("Operations that gave up waiting for a connection or failed to open one")
+                       .tag("client", client)
+                       .register(registry);
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public int getCheckedOut() {
+        return checkedOut.get();
+    }
+
+    public int getWaitQueueSize() {
+        return waitQueueSize.get();
+    }
+
+    public MongoPoolStatistics statistics() {
+        long count = checkOuts.sum();
+        return new MongoPoolStatistics(size.get(), checkedOut.get(), waitQueueSize.get(), count, checkOutFailures.sum(),
+                                       (count > 0) ? totalWaitNanos.sum() / 1e6 / count : 0.0,
+                                       maxWaitNanos.get() / 1e6);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mindex.challenge.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sample of the requests as structured key-value pairs, along with every request slower than the threshold.
+ * The request log replaces logging every request at DEBUG, which costs more than many of the requests themselves.
+ *
+ * The requests are logged to the {@value #LOGGER_NAME} logger, which logback-spring.xml writes with the key-value
+ * pairs; the route is the matched URI template, so requests for different employees are logged alike.
+ */
+@Component
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    static final String LOGGER_NAME = "com.mindex.challenge.requests";
+
+    private static final Logger LOG = LoggerFactory.getLogger(LOGGER_NAME);
+
+    /** The fraction of requests logged, between 0 and 1 */
+    @Value("${challenge.logging.requests.sample-rate:0.01}")
+    private double sampleRate;
+
+    /** Requests taking at least this long are always logged; 0 to only log the sample */
+    @Value("${challenge.logging.requests.slow-threshold:1s}")
+    private Duration slowThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!LOG.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            boolean slow = !slowThreshold.isZero() && elapsed >= slowThreshold.toNanos();
+            if (sampled || slow) {
+                Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                LOG.atInfo()
+                   .addKeyValue("method", request.getMethod())
+                   .addKeyValue("route", (route != null) ? route : request.getRequestURI())
+                   .addKeyValue("uri", request.getRequestURI())
+                   .addKeyValue("status", status)
+                   .addKeyValue("durationMs", elapsed / 1_000_000.0)
+                   .addKeyValue("sampled", sampled)
+                   .addKeyValue("slow", slow)
+                   .log("request");
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mindex.challenge.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mindex.challenge.data.CacheStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+public class CacheController {
+    private static final Logger LOG = LoggerFactory.getLogger(CacheController.class);
+
+    /** The caches by bean name */
+    @Autowired
+    private Map<String, Cache<?, ?>> caches;
+
+    @GetMapping("/cache/stats")
+    public Map<String, CacheStatistics> stats() {
+        LOG.debug("Received cache statistics request");
+
+        Map<String, CacheStatistics> statistics = new TreeMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats stats = cache.stats();
+            statistics.put(name, new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                                                     stats.hitRate(), stats.evictionCount()));
+        });
+
+        return statistics;
+    }
+}
@@ -1,49 +1,104 @@
 package com.mindex.challenge.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MultiGetResult;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
+@Profile("!reactive")
 public class EmployeeController {
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeController.class);
 
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${challenge.mget.max-ids:1000}")
+    private int multiGetMaxIds;
+
     @PostMapping("/employee")
     public Employee create(@RequestBody Employee employee) {
-        LOG.debug("Received employee create request for [{}]", employee);
+        LOG.debug("Received employee create request for [{} {}]", employee.getFirstName(), employee.getLastName());
 
         return employeeService.create(employee);
     }
 
+    /**
+     * Endpoint to create many employees at once from either a JSON array of employees or newline-delimited JSON.  The
+     * body is read and written in batches as it arrives rather than all at once.
+     *
+     * HTTP 200 with the outcome of every record, whether or not it was created
+     *
+     * @param body the request body
+     * @return the outcome of every record in the order they were sent
+     */
+    @PostMapping(value = "/employee/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public List<BulkResult> createAll(InputStream body) throws IOException {
+        LOG.debug("Received bulk employee create request");
+
+        // A reader iterating over a stream unwraps a top-level array, so both formats read the same way
+        try (MappingIterator<Employee> employees = objectMapper.readerFor(Employee.class).readValues(body)) {
+            return employeeService.createAll(employees);
+        }
+    }
+
     /**
      * Endpoint to retrieve the Employee
      *
      * HTTP 200 if employee is retrieved
+     * HTTP 400 if one of the expansions is not supported
      * HTTP 404 if employee is not found
      *
      * @param id the ID for the employee
+     * @param expand comma separated {@link EmployeeService#EXPANSIONS} to fill in; by default directReports only
+     *               hold employee IDs and managers are left out
      */
     @GetMapping("/employee/{id}")
-    public Employee read(@PathVariable String id) {
-        LOG.debug("Received employee create request for id [{}]", id);
+    public Employee read(@PathVariable String id, @RequestParam(required = false) Set<String> expand) {
+        LOG.debug("Received employee read request for id [{}]", id);
+
+        if (expand != null && !EmployeeService.EXPANSIONS.containsAll(expand)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expand must be one of " + EmployeeService.EXPANSIONS);
+        }
 
+        Employee employee = read(id);
+        return (expand == null || expand.isEmpty()) ? employee : employeeService.expand(employee, expand);
+    }
+
+    private Employee read(String id) {
         try {
             return employeeService.read(id);
         } catch (RuntimeException rtex) {
@@ -51,9 +106,29 @@ public class EmployeeController {
         }
     }
 
+    /**
+     * Endpoint to retrieve many employees with one request
+     *
+     * HTTP 200 with a result for every ID, whether or not the employee is found
+     * HTTP 400 if more IDs are requested than the configured limit
+     *
+     * @param ids JSON array of the employee IDs
+     * @return one result per ID in the order requested
+     */
+    @PostMapping("/employee/_mget")
+    public List<MultiGetResult> readAll(@RequestBody List<String> ids) {
+        LOG.debug("Received multi-get request for [{}] employees", ids.size());
+
+        if (ids.size() > multiGetMaxIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + multiGetMaxIds + " IDs may be requested");
+        }
+
+        return employeeService.readAll(ids);
+    }
+
     @PutMapping("/employee/{id}")
     public Employee update(@PathVariable String id, @RequestBody Employee employee) {
-        LOG.debug("Received employee create request for id [{}] and employee [{}]", id, employee);
+        LOG.debug("Received employee update request for id [{}]", id);
 
         employee.setEmployeeId(id);
         return employeeService.update(employee);
@@ -75,6 +150,43 @@ public class EmployeeController {
         return employeeService.getReportingStructure(employee);
     }
 
+    /**
+     * Endpoint to retrieve the full reporting tree below an employee: the employee with directReports populated all the
+     * way down.  The tree is streamed to the response as it is read rather than built in memory first.
+     *
+     * HTTP 200 if the employee is found
+     * HTTP 400 if one of the fields is not an Employee field
+     * HTTP 404 if employee is not found
+     *
+     * @param id the ID for the employee
+     * @param depth the number of reporting levels to include; defaults to (and is capped at) the configured limit
+     * @param fields comma separated Employee fields to include besides employeeId and directReports; defaults to all
+     */
+    @GetMapping(value = "/employee/{id}/reportingstructure/tree", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> reportingTree(@PathVariable String id,
+                                                               @RequestParam(required = false) Integer depth,
+                                                               @RequestParam(required = false) Set<String> fields) {
+        LOG.debug("Received employee reporting tree request for id [{}]", id);
+
+        if (depth != null && depth < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "depth must not be negative");
+        }
+        if (fields != null && !EmployeeService.REPORTING_TREE_FIELDS.containsAll(fields)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "fields must be one of " + EmployeeService.REPORTING_TREE_FIELDS);
+        }
+
+        // Read the employee up front so a missing employee is still reported as a 404
+        Employee employee = read(id);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                employeeService.writeReportingTree(employee, depth, fields, generator);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Endpoint to add a new Compensation record for the employee.
      *
@@ -94,20 +206,24 @@ public class EmployeeController {
     }
 
     /**
-     * Endpoint to retrieve the current compensation for the Employee
+     * Endpoint to retrieve the current compensation for the Employee, or the compensation in effect on a given date
      *
      * HTTP 200 if compensation for employee is retrieved
+     * HTTP 400 if asOf isn't a date in YYYY-MM-DD format
      * HTTP 404 if employee is not found or no compensation record is found
      *
      * @param id the Employee ID
+     * @param asOf the date to retrieve the compensation for; the current compensation if not supplied
      * @return the Compensation record
      */
     @GetMapping("employee/{id}/compensation")
-    public Compensation getCompensation(@PathVariable String id) {
-        LOG.debug("Received request to retrieve compensation for id [{}]", id);
+    public Compensation getCompensation(@PathVariable String id,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received request to retrieve compensation for id [{}] as of [{}]", id, asOf);
 
         Employee employee = read(id);
-        Optional<Compensation> compensation = employeeService.getCompensation(employee);
+        Optional<Compensation> compensation = (asOf == null) ? employeeService.getCompensation(employee)
+                                                             : employeeService.getCompensation(employee, asOf);
 
         if (compensation.isPresent()) {
             return compensation.get();
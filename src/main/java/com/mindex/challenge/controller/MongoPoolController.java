@@ -0,0 +1,33 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.config.MongoPoolMonitor;
+import com.mindex.challenge.data.MongoPoolStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@Profile("!inprocess")
+public class MongoPoolController {
+    private static final Logger LOG = LoggerFactory.getLogger(MongoPoolController.class);
+
+    /** The monitors of the blocking and reactive clients' pools */
+    @Autowired
+    private Map<String, MongoPoolMonitor> monitors;
+
+    @GetMapping("/mongo/pool/stats")
+    public Map<String, MongoPoolStatistics> stats() {
+        LOG.debug("Received Mongo connection pool statistics request");
+
+        Map<String, MongoPoolStatistics> statistics = new TreeMap<>();
+        monitors.values().forEach(monitor -> statistics.put(monitor.getClient(), monitor.statistics()));
+
+        return statistics;
+    }
+}
@@ -0,0 +1,119 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Serves the employee API on WebFlux in place of {@link EmployeeController} when the reactive profile is active.  The
+ * bulk create and reporting tree endpoints are only served by {@link EmployeeController}.
+ */
+@RestController
+@Profile("reactive")
+public class ReactiveEmployeeController {
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    @Autowired
+    private ReactiveEmployeeService employeeService;
+
+    @PostMapping("/employee")
+    public Mono<Employee> create(@RequestBody Employee employee) {
+        LOG.debug("Received employee create request for [{} {}]", employee.getFirstName(), employee.getLastName());
+
+        return employeeService.create(employee);
+    }
+
+    /**
+     * Endpoint to retrieve the Employee
+     *
+     * HTTP 200 if employee is retrieved
+     * HTTP 404 if employee is not found
+     *
+     * @param id the ID for the employee
+     */
+    @GetMapping("/employee/{id}")
+    public Mono<Employee> read(@PathVariable String id) {
+        LOG.debug("Received employee read request for id [{}]", id);
+
+        return employeeService.read(id)
+                              .onErrorMap(RuntimeException.class,
+                                          ex -> new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage()));
+    }
+
+    @PutMapping("/employee/{id}")
+    public Mono<Employee> update(@PathVariable String id, @RequestBody Employee employee) {
+        LOG.debug("Received employee update request for id [{}]", id);
+
+        employee.setEmployeeId(id);
+        return employeeService.update(employee);
+    }
+
+    /**
+     * Endpoint to retrieve the reporting structure record for an employee
+     *
+     * HTTP 200 if reporting record for the employee is retrieved
+     * HTTP 404 if employee is not found
+     *
+     * @param id the ID for the employee
+     */
+    @GetMapping("/employee/{id}/reportingstructure")
+    public Mono<ReportingStructure> reportingStructure(@PathVariable String id) {
+        LOG.debug("Received employee reporting structure request for id [{}]", id);
+
+        return read(id).flatMap(employeeService::getReportingStructure);
+    }
+
+    /**
+     * Endpoint to add a new Compensation record for the employee.  The Employee and ID in the body are ignored.
+     *
+     * @param id the Employee ID
+     * @param compensation the Compensation record for the employee
+     * @return the persisted Compensation record
+     */
+    @PostMapping("employee/{id}/compensation")
+    public Mono<Compensation> addCompensation(@PathVariable String id, @RequestBody Compensation compensation) {
+        LOG.debug("Received request to add compensation for id [{}]", id);
+
+        return read(id).flatMap(employee ->
+                employeeService.addCompensation(employee, compensation.salary(), compensation.effectiveDate()));
+    }
+
+    /**
+     * Endpoint to retrieve the current compensation for the Employee, or the compensation in effect on a given date
+     *
+     * HTTP 200 if compensation for employee is retrieved
+     * HTTP 400 if asOf isn't a date in YYYY-MM-DD format
+     * HTTP 404 if employee is not found or no compensation record is found
+     *
+     * @param id the Employee ID
+     * @param asOf the date to retrieve the compensation for; the current compensation if not supplied
+     * @return the Compensation record
+     */
+    @GetMapping("employee/{id}/compensation")
+    public Mono<Compensation> getCompensation(@PathVariable String id,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        LOG.debug("Received request to retrieve compensation for id [{}] as of [{}]", id, asOf);
+
+        return read(id).flatMap(employee -> (asOf == null) ? employeeService.getCompensation(employee)
+                                                           : employeeService.getCompensation(employee, asOf))
+                       .switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No compensation found")));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.service.SnapshotService;
+import com.mindex.challenge.snapshot.BinarySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@RestController
+public class SnapshotController {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotController.class);
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    /** The snapshot restored at startup; nothing is dumped if it isn't configured */
+    @Value("${challenge.snapshot.file:}")
+    private String snapshotFile;
+
+    /**
+     * Endpoint to dump the employees and compensation records to the configured snapshot file
+     *
+     * HTTP 200 if the snapshot is written
+     * HTTP 409 if no snapshot file is configured
+     *
+     * @return the counts of the records written
+     */
+    @PostMapping("/snapshot")
+    public BinarySnapshot.Summary dump() throws IOException {
+        LOG.debug("Received snapshot dump request");
+
+        if (snapshotFile.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No snapshot file is configured");
+        }
+
+        return snapshotService.dump(Path.of(snapshotFile));
+    }
+}
@@ -3,12 +3,18 @@ package com.mindex.challenge.dao;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CompensationRepository extends MongoRepository<Compensation, String> {
+public interface CompensationRepository extends DocumentRepository<Compensation> {
+    /**
+     * Streams every compensation record without loading them all at once.  The stream must be closed.
+     */
+    Stream<Compensation> streamAllBy();
+
     /**
      * Returns the List of Compensation records for an employee in descending order so the most recent compensation
      * record is first in the list.
@@ -17,4 +23,13 @@ public interface CompensationRepository extends MongoRepository<Compensation, St
      * @return sorted List of Compensation records; empty List if no records are found
      */
     List<Compensation> findByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
+
+    /**
+     * Returns the most recent Compensation record for an employee.  Backed by the (employeeId, effectiveDate)
+     * compound index on {@link Compensation}, so only one record is read however long the employee's history is.
+     *
+     * @param employeeId the ID of the employee to retrieve compensation for
+     * @return the Compensation record with the latest effectiveDate; empty if no records are found
+     */
+    Optional<Compensation> findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
 }
@@ -0,0 +1,57 @@
+package com.mindex.challenge.dao;
+
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The CRUD operations of the repositories: the subset of {@code MongoRepository} that both the Mongo and the
+ * in-process repositories implement in full.  Spring Data routes these methods of the Mongo repositories to its own
+ * implementation.  Sorting, paging and queries by example are left out, so nothing can come to rely on operations
+ * the in-process repositories can't answer.
+ *
+ * @param <T> the document type
+ */
+@NoRepositoryBean
+public interface DocumentRepository<T> extends Repository<T, String> {
+    /**
+     * Inserts a new document.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if a document with the same ID exists
+     */
+    <S extends T> S insert(S entity);
+
+    <S extends T> List<S> insert(Iterable<S> entities);
+
+    /**
+     * Inserts the document or replaces the document with the same ID.
+     */
+    <S extends T> S save(S entity);
+
+    <S extends T> List<S> saveAll(Iterable<S> entities);
+
+    Optional<T> findById(String id);
+
+    boolean existsById(String id);
+
+    List<T> findAll();
+
+    /**
+     * @return the documents found, in no particular order; IDs that aren't found are left out
+     */
+    List<T> findAllById(Iterable<String> ids);
+
+    long count();
+
+    void deleteById(String id);
+
+    void delete(T entity);
+
+    void deleteAllById(Iterable<? extends String> ids);
+
+    void deleteAll(Iterable<? extends T> entities);
+
+    void deleteAll();
+}
@@ -2,9 +2,42 @@ package com.mindex.challenge.dao;
 
 import com.mindex.challenge.data.Employee;
 import org.springframework.stereotype.Repository;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Aggregation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends DocumentRepository<Employee>, EmployeeRepositoryCustom {
     Employee findByEmployeeId(String employeeId);
+
+    /**
+     * Streams every employee without loading them all at once.  The stream must be closed.
+     */
+    Stream<Employee> streamAllBy();
+
+    /**
+     * Retrieves every employee with one of the IDs in a single query.
+     *
+     * @param employeeIds the IDs of the employees to retrieve
+     * @return the employees found, in no particular order; IDs that aren't found are left out
+     */
+    List<Employee> findByEmployeeIdIn(Collection<String> employeeIds);
+
+    /**
+     * Counts the distinct employees with a direct or indirect reporting relationship with the employee using a single
+     * $graphLookup aggregation.  $graphLookup never revisits an employee, so a cycle in the reporting data can't cause
+     * the lookup to run away; an employee who is one of their own indirect reports through a cycle isn't counted.
+     *
+     * @param employeeId the ID of the employee
+     * @param maxDepth the number of reporting levels to follow beyond the direct reports; must not be negative
+     * @return the number of reports; null if the employee is not found
+     */
+    @Aggregation(pipeline = {
+            "{ '$match': { '_id': ?0 } }",
+            "{ '$graphLookup': { 'from': 'employee', 'startWith': '$directReports', 'connectFromField': 'directReports', 'connectToField': '_id', 'as': 'reports', 'maxDepth': ?1 } }",
+            "{ '$project': { '_id': 0, 'numberOfReports': { '$size': { '$filter': { 'input': '$reports', 'cond': { '$ne': [ '$$this._id', ?0 ] } } } } } }"
+    })
+    Integer countReports(String employeeId, int maxDepth);
 }
@@ -0,0 +1,30 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Employee repository operations that can't be expressed as query methods.
+ */
+public interface EmployeeRepositoryCustom {
+    /**
+     * Inserts the employees in a single round-trip without stopping at the first one that is rejected, such as an
+     * employee whose employeeId is already taken.
+     *
+     * @param employees the employees to insert
+     * @return why each rejected employee wasn't inserted, keyed by its position in the list; empty if all of them were
+     *         inserted
+     */
+    Map<Integer, String> insertAll(List<Employee> employees);
+
+    /**
+     * Rewrites employees stored with their direct reports embedded as employee documents so the direct reports are
+     * stored as an array of employee IDs.  Employees already stored with IDs are left alone, so this is cheap to run
+     * on every start.
+     *
+     * @return the number of employees rewritten
+     */
+    long migrateDirectReports();
+}
@@ -0,0 +1,80 @@
+package com.mindex.challenge.dao;
+
+import com.mindex.challenge.data.Employee;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    /** Number of employees rewritten by each bulk write of the migration */
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    EmployeeRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Employee> employees) {
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Employee.class)
+                         .insert(employees)
+                         .execute();
+        } catch (BulkOperationException ex) {
+            for (BulkWriteError error : ex.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        }
+
+        return errors;
+    }
+
+    @Override
+    public long migrateDirectReports() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class));
+        // Employees with at least one direct report stored as a document
+        Bson embedded = new Document("directReports", new Document("$elemMatch", new Document("$type", "object")));
+
+        long migrated = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(MIGRATION_BATCH_SIZE);
+        try (MongoCursor<Document> employees = collection.find(embedded).projection(new Document("directReports", 1)).iterator()) {
+            while (employees.hasNext()) {
+                Document employee = employees.next();
+                List<Object> directReportIds = new ArrayList<>();
+                for (Object directReport : employee.getList("directReports", Object.class)) {
+                    directReportIds.add((directReport instanceof Document document) ? document.get("_id") : directReport);
+                }
+                batch.add(new UpdateOneModel<>(Filters.eq("_id", employee.get("_id")),
+                                               Updates.set("directReports", directReportIds)));
+
+                if (batch.size() == MIGRATION_BATCH_SIZE) {
+                    migrated += collection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            migrated += collection.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.data.Compensation;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inprocess")
+public class InProcessCompensationRepository extends InProcessRepository<Compensation> implements CompensationRepository {
+
+    /** Most recent first, with missing dates last as in Mongo's descending order */
+    private static final Comparator<Compensation> MOST_RECENT_FIRST =
+            Comparator.comparing(Compensation::effectiveDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                      .reversed();
+
+    /** IDs of the compensation records of each employee */
+    private final Map<String, Set<String>> idsByEmployee = new ConcurrentHashMap<>();
+
+    @Override
+    public Stream<Compensation> streamAllBy() {
+        return findAll().stream();
+    }
+
+    @Override
+    public List<Compensation> findByEmployeeIdOrderByEffectiveDateDesc(String employeeId) {
+        return compensations(employeeId).sorted(MOST_RECENT_FIRST).toList();
+    }
+
+    @Override
+    public Optional<Compensation> findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId) {
+        return compensations(employeeId).min(MOST_RECENT_FIRST);
+    }
+
+    @Override
+    protected String getId(Compensation compensation) {
+        return compensation.id();
+    }
+
+    @Override
+    protected Compensation copy(Compensation compensation) {
+        // Records are immutable
+        return compensation;
+    }
+
+    @Override
+    protected void onWrite(Compensation previous, Compensation current) {
+        if (previous != null && previous.employeeId() != null) {
+            Set<String> ids = idsByEmployee.get(previous.employeeId());
+            if (ids != null) {
+                ids.remove(previous.id());
+            }
+        }
+        if (current != null && current.employeeId() != null) {
+            idsByEmployee.computeIfAbsent(current.employeeId(), employeeId -> ConcurrentHashMap.newKeySet())
+                         .add(current.id());
+        }
+    }
+
+    private Stream<Compensation> compensations(String employeeId) {
+        Set<String> ids = (employeeId != null) ? idsByEmployee.get(employeeId) : null;
+        return (ids == null) ? Stream.empty() : ids.stream().map(this::get).filter(Objects::nonNull);
+    }
+}
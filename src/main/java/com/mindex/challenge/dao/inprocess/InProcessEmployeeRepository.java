@@ -0,0 +1,88 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inprocess")
+public class InProcessEmployeeRepository extends InProcessRepository<Employee> implements EmployeeRepository {
+
+    @Override
+    public Employee findByEmployeeId(String employeeId) {
+        return (employeeId != null) ? get(employeeId) : null;
+    }
+
+    @Override
+    public Stream<Employee> streamAllBy() {
+        return findAll().stream();
+    }
+
+    @Override
+    public List<Employee> findByEmployeeIdIn(Collection<String> employeeIds) {
+        return findAllById(employeeIds);
+    }
+
+    /**
+     * Not supported; the service counts reports with its org chart index instead.
+     *
+     * @return null
+     */
+    @Override
+    public Integer countReports(String employeeId, int maxDepth) {
+        return null;
+    }
+
+    @Override
+    public Map<Integer, String> insertAll(List<Employee> employees) {
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < employees.size(); i++) {
+            try {
+                insert(employees.get(i));
+            } catch (DuplicateKeyException ex) {
+                errors.put(i, ex.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Nothing to migrate; the in-process repository only ever holds direct reports as IDs.
+     *
+     * @return 0
+     */
+    @Override
+    public long migrateDirectReports() {
+        return 0;
+    }
+
+    @Override
+    protected String getId(Employee employee) {
+        return employee.getEmployeeId();
+    }
+
+    @Override
+    protected Employee copy(Employee employee) {
+        Employee copy = new Employee();
+        copy.setEmployeeId(employee.getEmployeeId());
+        copy.setFirstName(employee.getFirstName());
+        copy.setLastName(employee.getLastName());
+        copy.setPosition(employee.getPosition());
+        copy.setDepartment(employee.getDepartment());
+
+        if (employee.getDirectReportIds() != null) {
+            copy.setDirectReportIds(new ArrayList<>(employee.getDirectReportIds()));
+        }
+
+        return copy;
+    }
+}
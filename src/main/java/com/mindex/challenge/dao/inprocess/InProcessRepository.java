@@ -0,0 +1,162 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.mindex.challenge.dao.DocumentRepository;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link DocumentRepository} kept in a concurrent map inside the application, for single-node deployments that don't
+ * want to pay for encoding every call as BSON and sending it to a database server.
+ *
+ * Documents are copied on the way in and out, so callers can't change stored documents without saving them, just as
+ * with a database.  Reads don't lock; writes are serialized so subclasses can keep secondary indexes consistent.
+ *
+ * @param <T> the document type
+ */
+public abstract class InProcessRepository<T> implements DocumentRepository<T> {
+
+    private final Map<String, T> documents = new ConcurrentHashMap<>();
+
+    /**
+     * @return the ID of the document; documents are never assigned an ID by the repository
+     */
+    protected abstract String getId(T document);
+
+    /**
+     * @return a copy of the document that shares nothing mutable with it
+     */
+    protected abstract T copy(T document);
+
+    /**
+     * Called while holding the write lock after a document is stored, replaced or removed, to maintain secondary
+     * indexes.
+     *
+     * @param previous the document before the write; null if there wasn't one
+     * @param current the document after the write; null if it was removed
+     */
+    protected void onWrite(T previous, T current) {
+    }
+
+    protected T get(String id) {
+        T document = documents.get(id);
+        return (document != null) ? copy(document) : null;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        synchronized (this) {
+            String id = requireId(entity);
+            if (documents.containsKey(id)) {
+                throw new DuplicateKeyException("Duplicate key: " + id);
+            }
+            store(id, entity);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for (S entity : entities) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        synchronized (this) {
+            store(requireId(entity), entity);
+        }
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(get(id));
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return documents.values().stream().map(this::copy).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        List<T> found = new ArrayList<>();
+        for (String id : ids) {
+            T document = get(id);
+            if (document != null) {
+                found.add(document);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        synchronized (this) {
+            T previous = documents.remove(id);
+            if (previous != null) {
+                onWrite(previous, null);
+            }
+        }
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(requireId(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (this) {
+            documents.values().forEach(previous -> onWrite(previous, null));
+            documents.clear();
+        }
+    }
+
+    private void store(String id, T entity) {
+        T current = copy(entity);
+        onWrite(documents.put(id, current), current);
+    }
+
+    private String requireId(T entity) {
+        return Objects.requireNonNull(getId(entity), "The in-process repository requires documents to have an ID");
+    }
+}
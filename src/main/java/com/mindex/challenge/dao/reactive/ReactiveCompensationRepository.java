@@ -0,0 +1,33 @@
+package com.mindex.challenge.dao.reactive;
+
+import com.mindex.challenge.data.Compensation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link com.mindex.challenge.dao.CompensationRepository}.
+ */
+@Repository
+public interface ReactiveCompensationRepository extends ReactiveMongoRepository<Compensation, String> {
+    /**
+     * Returns the most recent Compensation record for an employee.
+     *
+     * @param employeeId the ID of the employee to retrieve compensation for
+     * @return the Compensation record with the latest effectiveDate; empty if no records are found
+     */
+    Mono<Compensation> findFirstByEmployeeIdOrderByEffectiveDateDesc(String employeeId);
+
+    /**
+     * Returns the Compensation record in effect for an employee on a date.  Like the most recent record, this is read
+     * straight off the (employeeId, effectiveDate) compound index.
+     *
+     * @param employeeId the ID of the employee to retrieve compensation for
+     * @param asOf the date to retrieve the compensation for
+     * @return the Compensation record with the latest effectiveDate on or before the date; empty if there is none
+     */
+    Mono<Compensation> findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(String employeeId,
+                                                                                                 LocalDate asOf);
+}
@@ -0,0 +1,25 @@
+package com.mindex.challenge.dao.reactive;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Non-blocking counterpart of {@link com.mindex.challenge.dao.EmployeeRepository}.
+ */
+@Repository
+public interface ReactiveEmployeeRepository extends ReactiveMongoRepository<Employee, String> {
+    Mono<Employee> findByEmployeeId(String employeeId);
+
+    /**
+     * Retrieves every employee with one of the IDs in a single query.
+     *
+     * @param employeeIds the IDs of the employees to retrieve
+     * @return the employees found, in no particular order; IDs that aren't found are left out
+     */
+    Flux<Employee> findByEmployeeIdIn(Collection<String> employeeIds);
+}
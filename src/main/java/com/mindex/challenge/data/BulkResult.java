@@ -0,0 +1,25 @@
+package com.mindex.challenge.data;
+
+/**
+ * The outcome of one record of a bulk request.
+ *
+ * @param index zero-based position of the record in the request
+ * @param employeeId ID of the employee the record was for; null if the record couldn't be read
+ * @param status whether the record was written
+ * @param error why the record wasn't written; null if it was
+ */
+public record BulkResult(int index, String employeeId, Status status, String error) {
+
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    public static BulkResult created(int index, String employeeId) {
+        return new BulkResult(index, employeeId, Status.CREATED, null);
+    }
+
+    public static BulkResult failed(int index, String employeeId, String error) {
+        return new BulkResult(index, employeeId, Status.FAILED, error);
+    }
+}
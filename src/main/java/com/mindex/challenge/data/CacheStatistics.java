@@ -0,0 +1,13 @@
+package com.mindex.challenge.data;
+
+/**
+ * A snapshot of the statistics recorded by one of the in-process caches.
+ *
+ * @param size approximate number of entries currently in the cache
+ * @param hitCount number of lookups that found an entry
+ * @param missCount number of lookups that had to go to the database
+ * @param hitRate ratio of hits to all lookups; 1.0 if there haven't been any lookups
+ * @param evictionCount number of entries removed because of the size or age limit
+ */
+public record CacheStatistics(long size, long hitCount, long missCount, double hitRate, long evictionCount) {
+}
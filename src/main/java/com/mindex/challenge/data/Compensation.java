@@ -1,5 +1,8 @@
 package com.mindex.challenge.data;
 
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
 import java.time.LocalDate;
 
 /**
@@ -10,5 +13,7 @@ import java.time.LocalDate;
  * @param salary The dollars being paid to the employee
  * @param effectiveDate The date that the employee starts receiving this salary
  */
+@Document
+@CompoundIndex(name = "employeeId_effectiveDate", def = "{'employeeId': 1, 'effectiveDate': -1}")
 public record Compensation(String id, String employeeId, Double salary, LocalDate effectiveDate) {
 }
\ No newline at end of file
@@ -1,15 +1,42 @@
 package com.mindex.challenge.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * An employee as stored and as returned by the API.
+ *
+ * Direct reports are stored as an array of employee IDs rather than embedded employees.  The API still reads and
+ * writes them as employee objects: an employee read from the database returns an object holding just the employeeId
+ * for each report, and the objects are only filled in when the reports are expanded, see
+ * {@link #withExpansion(List, List)}.
+ */
 public class Employee {
+    @Id
     private String employeeId;
     private String firstName;
     private String lastName;
     private String position;
     private String department;
+
+    /** IDs of the direct reports in order; an entry is null for a report given without an employeeId */
+    @Field("directReports")
+    private List<String> directReportIds;
+
+    /** The direct reports as they were set or expanded; never stored */
+    @Transient
     private List<Employee> directReports;
 
+    /** IDs of the employee's managers when expanded for a response; never stored */
+    @Transient
+    private List<String> managerIds;
+
     public Employee() {
     }
 
@@ -53,11 +80,82 @@ public class Employee {
         this.department = department;
     }
 
+    @JsonIgnore
+    public List<String> getDirectReportIds() {
+        return directReportIds;
+    }
+
+    @JsonIgnore
+    public void setDirectReportIds(List<String> directReportIds) {
+        this.directReportIds = directReportIds;
+        this.directReports = null;
+    }
+
+    /**
+     * @return the direct reports as they were set or expanded; otherwise an employee holding just the employeeId for
+     *         each report
+     */
     public List<Employee> getDirectReports() {
+        if (directReports != null || directReportIds == null) {
+            return directReports;
+        }
+
+        List<Employee> directReports = new ArrayList<>(directReportIds.size());
+        for (String directReportId : directReportIds) {
+            Employee directReport = new Employee();
+            directReport.setEmployeeId(directReportId);
+            directReports.add(directReport);
+        }
         return directReports;
     }
 
+    /**
+     * Sets the direct reports.  Only their employeeIds are stored.
+     */
     public void setDirectReports(List<Employee> directReports) {
         this.directReports = directReports;
+        if (directReports == null) {
+            directReportIds = null;
+            return;
+        }
+
+        directReportIds = new ArrayList<>(directReports.size());
+        for (Employee directReport : directReports) {
+            directReportIds.add((directReport != null) ? directReport.getEmployeeId() : null);
+        }
+    }
+
+    /**
+     * @return the IDs of the employee's managers; null unless expanded
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<String> getManagerIds() {
+        return managerIds;
+    }
+
+    public void setManagerIds(List<String> managerIds) {
+        this.managerIds = managerIds;
+    }
+
+    /**
+     * Copies the employee with its direct reports and managers expanded.  The employee itself is left untouched, since
+     * it may be shared through a cache, and the copy gets its own list of direct report IDs.
+     *
+     * @param directReports the direct reports in full, in the order of {@link #getDirectReportIds()}; null to leave
+     *                      them as IDs
+     * @param managerIds the IDs of the employee's managers; null to leave them out
+     * @return the expanded copy
+     */
+    public Employee withExpansion(List<Employee> directReports, List<String> managerIds) {
+        Employee copy = new Employee();
+        copy.employeeId = employeeId;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.position = position;
+        copy.department = department;
+        copy.directReportIds = (directReportIds != null) ? new ArrayList<>(directReportIds) : null;
+        copy.directReports = directReports;
+        copy.managerIds = managerIds;
+        return copy;
     }
 }
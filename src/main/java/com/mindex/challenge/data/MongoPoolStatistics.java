@@ -0,0 +1,16 @@
+package com.mindex.challenge.data;
+
+/**
+ * A snapshot of the Mongo connection pool.
+ *
+ * @param size number of open connections
+ * @param checkedOut number of connections in use
+ * @param waitQueueSize number of operations waiting for a connection
+ * @param checkOuts number of times a connection was handed out
+ * @param checkOutFailures number of operations that gave up waiting for a connection or failed to open one
+ * @param meanWaitMillis average time an operation waited for a connection
+ * @param maxWaitMillis longest time an operation waited for a connection
+ */
+public record MongoPoolStatistics(int size, int checkedOut, int waitQueueSize, long checkOuts, long checkOutFailures,
+                                  double meanWaitMillis, double maxWaitMillis) {
+}
@@ -0,0 +1,19 @@
+package com.mindex.challenge.data;
+
+/**
+ * The outcome of looking up one ID of a multi-get request.
+ *
+ * @param employeeId the ID as it was requested
+ * @param found whether an employee with the ID exists
+ * @param employee the employee; null if not found
+ */
+public record MultiGetResult(String employeeId, boolean found, Employee employee) {
+
+    public static MultiGetResult found(Employee employee) {
+        return new MultiGetResult(employee.getEmployeeId(), true, employee);
+    }
+
+    public static MultiGetResult missing(String employeeId) {
+        return new MultiGetResult(employeeId, false, null);
+    }
+}
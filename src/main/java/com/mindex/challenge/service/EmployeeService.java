@@ -1,17 +1,63 @@
 package com.mindex.challenge.service;
 
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MultiGetResult;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.data.Compensation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface EmployeeService {
+    /**
+     * The Employee fields that can be selected when writing a reporting tree.
+     */
+    Set<String> REPORTING_TREE_FIELDS = Set.of("firstName", "lastName", "position", "department");
+
+    /**
+     * The relationships of an Employee that can be expanded, see {@link #expand(Employee, Set)}.
+     */
+    Set<String> EXPANSIONS = Set.of("directReports", "managers");
+
     Employee create(Employee employee);
     Employee read(String id);
     Employee update(Employee employee);
 
+    /**
+     * Retrieves many employees at once.  Employees that are cached are taken from the cache and the rest are read
+     * with a single query.
+     *
+     * @param ids the IDs of the employees; an ID may be repeated
+     * @return one result per ID in the order requested, with the IDs that aren't found marked as missing
+     */
+    List<MultiGetResult> readAll(List<String> ids);
+
+    /**
+     * Fills in the relationships of an employee, which are otherwise only held as employee IDs.  Expanding
+     * directReports reads every direct report in full with {@link #readAll(List)}; a report that isn't found keeps
+     * just its employeeId.  Expanding managers adds the IDs of every employee the employee reports to.
+     *
+     * @param employee the employee, which is left untouched
+     * @param expansions the {@link #EXPANSIONS} to fill in
+     * @return a copy of the employee with the relationships filled in
+     */
+    Employee expand(Employee employee, Set<String> expansions);
+
+    /**
+     * Creates every employee read from the iterator, writing them in batches.  Employees without an employeeId are
+     * assigned one; an employee whose employeeId is already taken is not written.  A record that can't be read as an
+     * Employee is skipped, but malformed JSON ends the request since the next record can't be found.
+     *
+     * @param employees the employees, read from a JSON array or a stream of JSON objects
+     * @return the outcome of every record in the order they were read
+     */
+    List<BulkResult> createAll(MappingIterator<Employee> employees) throws IOException;
+
     /**
      * Generates a reporting structure record for an employee.  This record is always generated and not persisted.
      * @param employee the employee
@@ -19,11 +65,35 @@ public interface EmployeeService {
      */
     ReportingStructure getReportingStructure(Employee employee);
 
+    /**
+     * Writes the employee and everybody reporting to the employee as a single JSON object, with each employee's
+     * directReports fully populated.  The hierarchy is written as it is read so the whole tree is never held in memory.
+     *
+     * An employee that reports to one of their own managers is written with just the employeeId and no reports.
+     *
+     * @param employee the employee at the top of the tree
+     * @param maxDepth the number of reporting levels to include; 0 writes just the employee; null for the configured limit
+     * @param fields the {@link #REPORTING_TREE_FIELDS} to write in addition to employeeId and directReports; null for
+     *               all of them
+     * @param generator the generator to write to
+     */
+    void writeReportingTree(Employee employee, Integer maxDepth, Set<String> fields, JsonGenerator generator) throws IOException;
+
     /**
      * Returns the employee's current Compensation if found.
      */
     Optional<Compensation> getCompensation(Employee employee);
 
+    /**
+     * Returns the Compensation the employee was paid on a date: the record with the latest effectiveDate on or before
+     * the date.
+     *
+     * @param employee the employee
+     * @param asOf the date to look up
+     * @return the Compensation in effect on the date; empty if the employee had no compensation yet
+     */
+    Optional<Compensation> getCompensation(Employee employee, LocalDate asOf);
+
     /**
      * Creates and persists a new Compensation record for an employee
      *
@@ -0,0 +1,61 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeService}.  Nothing happens until the returned publishers are subscribed
+ * to.
+ */
+public interface ReactiveEmployeeService {
+    Mono<Employee> create(Employee employee);
+
+    /**
+     * Retrieves an employee.
+     *
+     * @param id the ID of the employee
+     * @return the employee; an error if the employee is not found
+     */
+    Mono<Employee> read(String id);
+
+    Mono<Employee> update(Employee employee);
+
+    /**
+     * Generates a reporting structure record for an employee.  The hierarchy is read a level at a time, with the
+     * employees of a level looked up concurrently.
+     *
+     * @param employee the employee
+     * @return a newly instantiated ReportingStructure record
+     */
+    Mono<ReportingStructure> getReportingStructure(Employee employee);
+
+    /**
+     * Returns the employee's current Compensation; empty if there is none.
+     */
+    Mono<Compensation> getCompensation(Employee employee);
+
+    /**
+     * Returns the Compensation the employee was paid on a date: the record with the latest effectiveDate on or before
+     * the date.
+     *
+     * @param employee the employee
+     * @param asOf the date to look up
+     * @return the Compensation in effect on the date; empty if the employee had no compensation yet
+     */
+    Mono<Compensation> getCompensation(Employee employee, LocalDate asOf);
+
+    /**
+     * Creates and persists a new Compensation record for an employee
+     *
+     * @param employee the employee
+     * @param salary the amount the employee is being paid
+     * @param effectiveDate the starting date for the salary amount
+     *
+     * @return a persisted Compensation record with a unique ID assigned to it; an error if the employee is not found
+     */
+    Mono<Compensation> addCompensation(Employee employee, Double salary, LocalDate effectiveDate);
+}
@@ -0,0 +1,17 @@
+package com.mindex.challenge.service;
+
+import com.mindex.challenge.snapshot.BinarySnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface SnapshotService {
+    /**
+     * Writes every persisted employee and compensation record to a binary snapshot that can be restored at startup.
+     * The collections are read one after the other, so writes made during the dump may be only partly included.
+     *
+     * @param file the snapshot file; replaced if it exists
+     * @return the counts of the records written
+     */
+    BinarySnapshot.Summary dump(Path file) throws IOException;
+}
@@ -0,0 +1,165 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mindex.challenge.data.Compensation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * An in-memory index of each employee's compensation history for point-in-time lookups.
+ *
+ * The history of an employee is loaded the first time it's needed and held as parallel arrays sorted by
+ * effectiveDate, with dates as epoch days and salaries as primitive doubles, so a lookup is a binary search that
+ * allocates nothing but the returned record.  Histories are never modified in place; adding compensation replaces the
+ * employee's history with a copy, so lookups don't need to lock.  The histories are held in a bounded cache, see
+ * {@link com.mindex.challenge.config.CacheConfig}; an evicted history is loaded again the next time it's needed.
+ */
+@Component
+public class CompensationHistoryIndex {
+
+    /** Epoch day standing in for a missing effectiveDate, which sorts before every real date */
+    private static final long NO_EFFECTIVE_DATE = Long.MIN_VALUE;
+
+    @Autowired
+    private Cache<String, History> histories;
+
+    /** Bumped by every add, so a history loaded while compensation was being added isn't indexed */
+    private final AtomicLong additions = new AtomicLong();
+
+    /**
+     * Finds the compensation in effect for an employee on a date: the record with the latest effectiveDate on or
+     * before the date.  When two records take effect on the same day the one added last wins.
+     *
+     * @param employeeId the ID of the employee
+     * @param asOf the date to find the compensation for
+     * @param historyLoader loads the full compensation history of the employee if it hasn't been indexed yet
+     *
+     * @return the compensation in effect on the date; empty if the employee wasn't paid yet
+     */
+    public Optional<Compensation> find(String employeeId, LocalDate asOf,
+                                       Function<String, ? extends Iterable<Compensation>> historyLoader) {
+        History history = histories.getIfPresent(employeeId);
+        if (history == null) {
+            /*
+             * Loaded outside of the map's lock so a virtual thread blocking on the database doesn't pin its carrier.
+             * A load overlapping add() may have missed the new record, so it's only indexed if nothing was added
+             * since it started; otherwise it's used for this lookup alone.
+             */
+            long additionsBeforeLoad = additions.get();
+            History loaded = History.of(historyLoader.apply(employeeId));
+            history = histories.asMap().compute(employeeId, (id, indexed) -> (indexed != null) ? indexed
+                    : (additions.get() == additionsBeforeLoad) ? loaded : null);
+            if (history == null) {
+                history = loaded;
+            }
+        }
+        return history.find(employeeId, asOf.toEpochDay());
+    }
+
+    /**
+     * Adds a newly persisted compensation record to the employee's history.  Nothing is done if the history isn't
+     * indexed yet, since it will be loaded with the record the first time it's needed.
+     */
+    public void add(Compensation compensation) {
+        additions.incrementAndGet();
+        histories.asMap().computeIfPresent(compensation.employeeId(), (employeeId, history) -> history.add(compensation));
+    }
+
+    /**
+     * Whether the compensation history of the employee is held by the index.
+     */
+    public boolean contains(String employeeId) {
+        return histories.asMap().containsKey(employeeId);
+    }
+
+    private static long toEpochDay(LocalDate effectiveDate) {
+        return (effectiveDate != null) ? effectiveDate.toEpochDay() : NO_EFFECTIVE_DATE;
+    }
+
+    /**
+     * The compensation history of one employee ordered by effectiveDate.
+     */
+    public static final class History {
+        private final String[] ids;
+        private final long[] effectiveDays;
+        private final double[] salaries;
+
+        private History(String[] ids, long[] effectiveDays, double[] salaries) {
+            this.ids = ids;
+            this.effectiveDays = effectiveDays;
+            this.salaries = salaries;
+        }
+
+        static History of(Iterable<Compensation> compensations) {
+            List<Compensation> sorted = new ArrayList<>();
+            compensations.forEach(sorted::add);
+            sorted.sort(Comparator.comparingLong(compensation -> toEpochDay(compensation.effectiveDate())));
+
+            int size = sorted.size();
+            History history = new History(new String[size], new long[size], new double[size]);
+            for (int i = 0; i < size; i++) {
+                history.set(i, sorted.get(i));
+            }
+            return history;
+        }
+
+        History add(Compensation compensation) {
+            int size = ids.length;
+            int position = upperBound(toEpochDay(compensation.effectiveDate()));
+
+            History history = new History(new String[size + 1], new long[size + 1], new double[size + 1]);
+            System.arraycopy(ids, 0, history.ids, 0, position);
+            System.arraycopy(effectiveDays, 0, history.effectiveDays, 0, position);
+            System.arraycopy(salaries, 0, history.salaries, 0, position);
+            history.set(position, compensation);
+            System.arraycopy(ids, position, history.ids, position + 1, size - position);
+            System.arraycopy(effectiveDays, position, history.effectiveDays, position + 1, size - position);
+            System.arraycopy(salaries, position, history.salaries, position + 1, size - position);
+            return history;
+        }
+
+        Optional<Compensation> find(String employeeId, long epochDay) {
+            int position = upperBound(epochDay) - 1;
+            if (position < 0) {
+                return Optional.empty();
+            }
+
+            long effectiveDay = effectiveDays[position];
+            double salary = salaries[position];
+            return Optional.of(new Compensation(ids[position], employeeId,
+                                                Double.isNaN(salary) ? null : salary,
+                                                (effectiveDay == NO_EFFECTIVE_DATE) ? null : LocalDate.ofEpochDay(effectiveDay)));
+        }
+
+        private void set(int position, Compensation compensation) {
+            ids[position] = compensation.id();
+            effectiveDays[position] = toEpochDay(compensation.effectiveDate());
+            salaries[position] = (compensation.salary() != null) ? compensation.salary() : Double.NaN;
+        }
+
+        /**
+         * @return the position of the first record taking effect after the day; the number of records if none do
+         */
+        private int upperBound(long epochDay) {
+            int low = 0;
+            int high = effectiveDays.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (effectiveDays[middle] <= epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,39 +1,134 @@
 package com.mindex.challenge.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MultiGetResult;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
+import com.mongodb.MongoCommandException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+
+import java.io.IOException;
 import java.time.LocalDate;
-import java.util.UUID;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
-public class EmployeeServiceImpl implements EmployeeService {
+public class EmployeeServiceImpl implements EmployeeService, MeterBinder {
 
     private static final Logger LOG = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+    /** Orders effective dates with a missing date oldest, as the repositories and the history index do */
+    private static final Comparator<LocalDate> EFFECTIVE_DATE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    /**
+     * How the reporting hierarchy is walked when the index can't answer a reporting structure in O(1).
+     */
+    public enum TraversalMode {
+        /** Walk on the request thread */
+        SEQUENTIAL,
+        /** Split wide fan-outs across the common ForkJoinPool */
+        PARALLEL
+    }
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
     @Autowired
     private CompensationRepository compensationRepository;
 
+    @Autowired
+    private OrgChartIndex orgChartIndex;
+
+    @Autowired
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    @Autowired
+    private ReportingMetrics reportingMetrics;
+
+    @Autowired
+    private Cache<String, Employee> employeeCache;
+
+    @Autowired
+    private Cache<String, Optional<Compensation>> currentCompensationCache;
+
+    /** Bumped whenever cached employees are invalidated, see {@link #load} */
+    private final AtomicLong employeeWrites = new AtomicLong();
+
+    /** Bumped whenever compensation is added, see {@link #load} */
+    private final AtomicLong compensationWrites = new AtomicLong();
+
+    /*
+     * Concurrent requests for the same employee share one database read or reporting structure count, so a burst of
+     * requests for one employee costs what a single request does
+     */
+    private final SingleFlight<String, Employee> employeeLoads = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Compensation>> compensationLoads = new SingleFlight<>();
+    private final SingleFlight<ReportCountKey, Integer> reportCounts = new SingleFlight<>();
+
+    @Value("${challenge.bulk.batch-size:1000}")
+    private int bulkBatchSize;
+
+    @Value("${challenge.reporting.max-depth:100}")
+    private int reportingMaxDepth;
+
+    @Value("${challenge.reporting.max-reports:1000000}")
+    private int reportingMaxReports;
+
+    @Value("${challenge.reporting.traversal:SEQUENTIAL}")
+    private TraversalMode reportingTraversal;
+
+    @Value("${challenge.reporting.parallel-threshold:512}")
+    private int reportingParallelThreshold;
+
+    /**
+     * Whether reporting structures may be computed with a $graphLookup aggregation.  Cleared the first time the
+     * database rejects the aggregation so it isn't attempted again.
+     */
+    @Value("${challenge.reporting.graph-lookup.enabled:false}")
+    private volatile boolean aggregationSupported;
+
     @Override
     public Employee create(Employee employee) {
-        LOG.debug("Creating employee [{}]", employee);
+        LOG.debug("Creating employee [{} {}]", employee.getFirstName(), employee.getLastName());
 
         employee.setEmployeeId(UUID.randomUUID().toString());
         employeeRepository.insert(employee);
+        invalidateEmployees(List.of(employee.getEmployeeId()));
+        index(employee);
+        reportCounts.forgetAll();
 
         return employee;
     }
@@ -42,102 +137,535 @@ public class EmployeeServiceImpl implements EmployeeService {
     public Employee read(String id) {
         LOG.debug("Retrieving employee with id [{}]", id);
 
-        Employee employee = employeeRepository.findByEmployeeId(id);
+        // Misses aren't cached, so an employee created elsewhere is found on the next read
+        Employee employee = (id != null)
+                ? load(employeeCache, employeeWrites, employeeLoads, id, employeeRepository::findByEmployeeId)
+                : null;
 
         if (employee == null) {
             throw new RuntimeException("Invalid employeeId: " + id);
         }
 
-        return employee;
+        // The cached employee is shared, so the caller gets a copy it's free to change
+        return employee.withExpansion(null, null);
+    }
+
+    @Override
+    public List<MultiGetResult> readAll(List<String> ids) {
+        LOG.debug("Retrieving [{}] employees", ids.size());
+
+        Set<String> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, Employee> employees = new HashMap<>(employeeCache.getAllPresent(distinctIds));
+
+        List<String> misses = distinctIds.stream().filter(id -> !employees.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            long writesBeforeLoad = employeeWrites.get();
+            for (Employee employee : employeeRepository.findByEmployeeIdIn(misses)) {
+                employees.put(employee.getEmployeeId(), employee);
+                cache(employeeCache, employeeWrites, writesBeforeLoad, employee.getEmployeeId(), employee);
+            }
+        }
+
+        return ids.stream()
+                  .map(id -> employees.containsKey(id)
+                          ? MultiGetResult.found(employees.get(id).withExpansion(null, null))
+                          : MultiGetResult.missing(id))
+                  .toList();
+    }
+
+    @Override
+    public Employee expand(Employee employee, Set<String> expansions) {
+        List<Employee> directReports = null;
+        if (expansions.contains("directReports") && employee.getDirectReportIds() != null) {
+            directReports = readAll(employee.getDirectReportIds())
+                    .stream()
+                    .map(result -> result.found() ? result.employee() : stub(result.employeeId()))
+                    .toList();
+        }
+
+        List<String> managerIds = expansions.contains("managers") ? orgChartIndex.getManagers(employee.getEmployeeId()) : null;
+
+        return employee.withExpansion(directReports, managerIds);
     }
 
     @Override
     public Employee update(Employee employee) {
-        LOG.debug("Updating employee [{}]", employee);
+        LOG.debug("Updating employee [{}]", employee.getEmployeeId());
 
-        return employeeRepository.save(employee);
+        Employee updatedEmployee = employeeRepository.save(employee);
+        invalidateEmployees(List.of(updatedEmployee.getEmployeeId()));
+        index(updatedEmployee);
+        reportCounts.forgetAll();
+
+        return updatedEmployee;
+    }
+
+    @Override
+    public List<BulkResult> createAll(MappingIterator<Employee> employees) throws IOException {
+        List<BulkResult> results = new ArrayList<>();
+        List<Employee> batch = new ArrayList<>(bulkBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(bulkBatchSize);
+        int index = 0;
+
+        while (true) {
+            Employee employee;
+            try {
+                if (!employees.hasNextValue()) {
+                    break;
+                }
+                employee = employees.nextValue();
+            } catch (JsonParseException ex) {
+                results.add(BulkResult.failed(index, null, ex.getOriginalMessage()));
+                break;
+            } catch (JsonMappingException ex) {
+                // The iterator skips to the next record
+                results.add(BulkResult.failed(index++, null, ex.getOriginalMessage()));
+                continue;
+            }
+
+            if (employee == null) {
+                results.add(BulkResult.failed(index++, null, "Record is null"));
+                continue;
+            }
+            if (employee.getEmployeeId() == null) {
+                employee.setEmployeeId(UUID.randomUUID().toString());
+            }
+
+            batch.add(employee);
+            batchIndexes.add(index++);
+            if (batch.size() == bulkBatchSize) {
+                insertBatch(batch, batchIndexes, results);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            insertBatch(batch, batchIndexes, results);
+        }
+        // Recounting once for the whole request is cheaper than once per batch
+        orgChartIndex.recount();
+
+        results.sort(Comparator.comparingInt(BulkResult::index));
+        return results;
+    }
+
+    /**
+     * Inserts a batch of employees with one unordered write, so a rejected employee doesn't stop the rest of the batch,
+     * and clears the batch.  The created employees are indexed without recounting the reports, which is left to the
+     * caller once every batch is in.
+     *
+     * @param batchIndexes position of each employee of the batch in the request
+     */
+    private void insertBatch(List<Employee> batch, List<Integer> batchIndexes, List<BulkResult> results) {
+        LOG.debug("Inserting batch of [{}] employees", batch.size());
+
+        Map<Integer, String> errors = employeeRepository.insertAll(batch);
+
+        List<Employee> created = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String employeeId = batch.get(i).getEmployeeId();
+            if (errors.containsKey(i)) {
+                results.add(BulkResult.failed(batchIndexes.get(i), employeeId, errors.get(i)));
+            } else {
+                results.add(BulkResult.created(batchIndexes.get(i), employeeId));
+                created.add(batch.get(i));
+            }
+        }
+
+        invalidateEmployees(created.stream().map(Employee::getEmployeeId).toList());
+        try {
+            orgChartIndex.loadWithoutCounts(created);
+        } catch (RuntimeException ex) {
+            LOG.error("Failed to index a batch of [{}] employees, rebuilding the org chart index", created.size(), ex);
+            rebuildIndex();
+        }
+        reportCounts.forgetAll();
+        batch.clear();
+        batchIndexes.clear();
     }
 
     @Override
     public ReportingStructure getReportingStructure(final Employee employee) {
-        int totalReports = getTotalReports(employee);
+        if (employee.getEmployeeId() == null) {
+            return new ReportingStructure(employee, countReports(employee));
+        }
+
+        // Concurrent requests for the same employee share one count, as long as they pass the same direct reports
+        ReportCountKey key = new ReportCountKey(employee.getEmployeeId(), new ArrayList<>(getDirectReportIds(employee)));
+        int totalReports = reportCounts.execute(key, () -> countReports(employee));
         return new ReportingStructure(employee, totalReports);
     }
 
+    private int countReports(Employee employee) {
+        // Try the index first, then a single aggregation round-trip, and only walk the hierarchy as a last resort
+        Optional<ReportTraversal> traversal = traverseIndex(employee.getEmployeeId());
+        if (traversal.isPresent()) {
+            // A materialized count only looks at the employee itself, however many reports it stands for
+            int visited = traversal.get().walked() ? traversal.get().reports() + traversal.get().duplicates() : 1;
+            reportingMetrics.record(ReportingMetrics.Source.INDEX, visited, 0, traversal.get().depth());
+            return checkTraversal(employee, traversal.get());
+        }
+
+        OptionalInt reports = countReportsByAggregation(employee.getEmployeeId());
+        if (reports.isPresent()) {
+            reportingMetrics.record(ReportingMetrics.Source.AGGREGATION, reports.getAsInt(), 1, -1);
+            return reports.getAsInt();
+        }
+
+        return getTotalReports(employee);
+    }
+
+    @Override
+    public void writeReportingTree(Employee employee, Integer maxDepth, Set<String> fields, JsonGenerator generator)
+            throws IOException {
+        int depth = (maxDepth == null) ? reportingMaxDepth : Math.min(maxDepth, reportingMaxDepth);
+        writeReportingTree(employee, depth, (fields == null) ? REPORTING_TREE_FIELDS : fields, new HashSet<>(), generator);
+        generator.flush();
+    }
+
+    /**
+     * Writes one employee of the reporting tree and, while there are levels left, the employee's reports.  The direct
+     * reports of each employee are loaded with a single query, so only the employees on the current path and their
+     * siblings are ever in memory.
+     *
+     * @param managers IDs of the employees above this one, used to stop at cycles
+     */
+    private void writeReportingTree(Employee employee, int remainingDepth, Set<String> fields, Set<String> managers,
+                                    JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("employeeId", employee.getEmployeeId());
+        if (fields.contains("firstName")) {
+            generator.writeStringField("firstName", employee.getFirstName());
+        }
+        if (fields.contains("lastName")) {
+            generator.writeStringField("lastName", employee.getLastName());
+        }
+        if (fields.contains("position")) {
+            generator.writeStringField("position", employee.getPosition());
+        }
+        if (fields.contains("department")) {
+            generator.writeStringField("department", employee.getDepartment());
+        }
+
+        List<String> directReportIds = getDirectReportIds(employee);
+        if (remainingDepth > 0 && !directReportIds.isEmpty()) {
+            Map<String, Employee> persistedReports = employeeRepository.findByEmployeeIdIn(
+                            directReportIds.stream().filter(Objects::nonNull).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Employee::getEmployeeId, Function.identity()));
+
+            managers.add(employee.getEmployeeId());
+            generator.writeArrayFieldStart("directReports");
+
+            for (String directReportId : directReportIds) {
+                if (managers.contains(directReportId)) {
+                    LOG.warn("Reporting hierarchy of employee [{}] contains a cycle", directReportId);
+                    generator.writeStartObject();
+                    generator.writeStringField("employeeId", directReportId);
+                    generator.writeEndObject();
+                    continue;
+                }
+
+                // Nothing is known about a report that isn't persisted besides its employeeId
+                writeReportingTree(persistedReports.getOrDefault(directReportId, stub(directReportId)),
+                                   remainingDepth - 1, fields, managers, generator);
+            }
+
+            generator.writeEndArray();
+            managers.remove(employee.getEmployeeId());
+        }
+
+        generator.writeEndObject();
+    }
+
     @Override
     public Optional<Compensation> getCompensation(Employee employee) {
-        List<Compensation> compensationList = compensationRepository.findByEmployeeIdOrderByEffectiveDateDesc(employee.getEmployeeId());
-        return (!compensationList.isEmpty()) ? Optional.of(compensationList.get(0)) : Optional.empty();
+        if (employee.getEmployeeId() == null) {
+            return Optional.empty();
+        }
+
+        return load(currentCompensationCache, compensationWrites, compensationLoads, employee.getEmployeeId(),
+                    compensationRepository::findFirstByEmployeeIdOrderByEffectiveDateDesc);
+    }
+
+    @Override
+    public Optional<Compensation> getCompensation(Employee employee, LocalDate asOf) {
+        if (employee.getEmployeeId() == null) {
+            return Optional.empty();
+        }
+
+        return compensationHistoryIndex.find(employee.getEmployeeId(), asOf,
+                                             compensationRepository::findByEmployeeIdOrderByEffectiveDateDesc);
     }
 
     @Override
     public Compensation addCompensation(Employee employee, Double salary, LocalDate effectiveDate) {
-        // Make sure that the employee exists in the database before proceeding (call will throw an exception)
+        // Make sure that the employee exists before proceeding (call will throw an exception); the controller has
+        // usually just read the employee, so this is a cache hit
         read(employee.getEmployeeId());
 
         Compensation compensation = new Compensation(UUID.randomUUID().toString(), employee.getEmployeeId(), salary, effectiveDate);
         compensationRepository.insert(compensation);
+        compensationWrites.incrementAndGet();
+        compensationLoads.forget(employee.getEmployeeId());
+        compensationHistoryIndex.add(compensation);
+
+        /*
+         * Only replace a cached current compensation that this one supersedes; a back-dated record stays in the
+         * history without becoming current.  If nothing is cached the next read loads it; a load already under way
+         * may have missed the record, but isn't cached since the write counter moved on.
+         */
+        currentCompensationCache.asMap().computeIfPresent(employee.getEmployeeId(), (employeeId, current) ->
+                current.filter(currentCompensation ->
+                                EFFECTIVE_DATE_ORDER.compare(currentCompensation.effectiveDate(), effectiveDate) > 0)
+                       .or(() -> Optional.of(compensation)));
+
         return compensation;
     }
 
     /**
-     * Determines the number employees with a direct and indirect reporting relationship with the provided employee.
+     * Publishes how many requests shared a database read or reporting structure count with a concurrent request,
+     * alongside the work recorded by {@link ReportingMetrics}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCoalescedCalls(registry, "employee", employeeLoads);
+        bindCoalescedCalls(registry, "compensation", compensationLoads);
+        bindCoalescedCalls(registry, "reporting", reportCounts);
+    }
+
+    private static void bindCoalescedCalls(MeterRegistry registry, String operation, SingleFlight<?, ?> calls) {
+        FunctionCounter.builder("challenge.coalesced.calls", calls, SingleFlight::getCoalescedCalls)
+                       .description("Requests that shared the result of an identical request already in flight")
+                       .tag("operation", operation)
+                       .register(registry);
+    }
+
+    /**
+     * Reads a cache entry, loading it on a miss.
+     *
+     * The value is loaded outside of the cache rather than with {@code Cache.get(key, loader)}, which runs the loader
+     * while holding a lock of the underlying map; a virtual thread blocking on the database there would pin its
+     * carrier thread.  A load that overlaps a write may have read the old value, so it's only cached if no write
+     * happened since it started; writers bump the counter after persisting and before updating the cache, so either
+     * the write sees the loaded entry or the load sees the bumped counter.
+     *
+     * Concurrent misses for the same key share a single load.
+     *
+     * @param writes counter bumped by every write to the cached data
+     * @param loads the loads in flight, which writers forget along with bumping the counter
+     *
+     * @return the cached or loaded value; null if the loader found nothing, which isn't cached
+     */
+    private <V> V load(Cache<String, V> cache, AtomicLong writes, SingleFlight<String, V> loads, String key,
+                       Function<String, V> loader) {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        return loads.execute(key, () -> {
+            long writesBeforeLoad = writes.get();
+            V loaded = loader.apply(key);
+            if (loaded != null) {
+                cache(cache, writes, writesBeforeLoad, key, loaded);
+            }
+            return loaded;
+        });
+    }
+
+    /**
+     * Caches a loaded value unless the key is already cached or a write happened since the load started.
+     *
+     * @param writesBeforeLoad the write counter read before the value was loaded
+     */
+    private static <V> void cache(Cache<String, V> cache, AtomicLong writes, long writesBeforeLoad, String key, V loaded) {
+        cache.asMap().compute(key, (k, cached) ->
+                (cached == null && writes.get() == writesBeforeLoad) ? loaded : cached);
+    }
+
+    /**
+     * Records a persisted employee in the org chart index.  If that fails the index no longer matches the database,
+     * so it's rebuilt from the repository.
+     */
+    private void index(Employee employee) {
+        try {
+            orgChartIndex.put(employee);
+        } catch (RuntimeException ex) {
+            LOG.error("Failed to index employee [{}], rebuilding the org chart index", employee.getEmployeeId(), ex);
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Reloads the org chart index from the repository.  The index is emptied first, so reporting structures are
+     * counted from the database until the reload takes over, and for good if it fails as well.
+     */
+    private void rebuildIndex() {
+        orgChartIndex.clear();
+        try (Stream<Employee> employees = employeeRepository.streamAllBy()) {
+            orgChartIndex.load(employees::iterator);
+        } catch (RuntimeException ex) {
+            LOG.error("Failed to rebuild the org chart index", ex);
+            orgChartIndex.clear();
+        }
+    }
+
+    private void invalidateEmployees(List<String> employeeIds) {
+        employeeWrites.incrementAndGet();
+        employeeIds.forEach(employeeLoads::forget);
+        employeeCache.invalidateAll(employeeIds);
+    }
+
+    /**
+     * Determines the number of distinct employees with a direct and indirect reporting relationship with the provided
+     * employee.
+     *
+     * The hierarchy is walked iteratively, remembering every employee already counted, so a cycle in the reporting
+     * data can't recurse forever and an employee reachable through two managers is only counted once.  As soon as
+     * the walk reaches an indexed employee the rest of that branch is handed to the index.  A report that isn't
+     * persisted is counted without any reports of its own, and reports without an employeeId can't be told apart and
+     * are each counted.
      *
      * @param employee the Employee to get reports for
      *
      * @return number of reporting employees
      */
     private int getTotalReports(Employee employee) {
-        // Make sure the employee is completely loaded
-        employee = retrieveEmployeeIfNecessary(employee);
+        Set<String> visited = new HashSet<>();
+        visited.add(employee.getEmployeeId());
+
+        // Used as a stack; unlike an ArrayDeque it can hold the null ID of a report without an employeeId
+        List<String> pending = new ArrayList<>(getDirectReportIds(employee));
+        List<String> indexedReports = new ArrayList<>();
+        int totalReports = 0;
+        int duplicates = 0;
+        int databaseCalls = 0;
+        boolean truncated = false;
 
-        // Get the list of direct reports for the employee
-        List<Employee> directReports = Optional.ofNullable(employee.getDirectReports())
-                                                .orElse(Collections.emptyList());
+        while (!pending.isEmpty()) {
+            String reportingEmployeeId = pending.remove(pending.size() - 1);
 
-        int totalReports = directReports.size();    // begin the total with the number of direct reports
+            if (reportingEmployeeId != null) {
+                if (!visited.add(reportingEmployeeId)) {
+                    duplicates++;
+                    continue;
+                }
+                if (orgChartIndex.contains(reportingEmployeeId)) {
+                    indexedReports.add(reportingEmployeeId);
+                    continue;
+                }
+            }
 
-        // Recurse down the reporting hierarchy to add in the indirect reports
-        for (Employee reportingEmployee : directReports) {
-            totalReports += getTotalReports(reportingEmployee);
+            if (totalReports == reportingMaxReports) {
+                truncated = true;
+                break;
+            }
+
+            totalReports++;
+            if (reportingEmployeeId == null) {
+                continue;
+            }
+            // Checked through the map view, which unlike getIfPresent doesn't count as a cache hit or miss
+            if (!employeeCache.asMap().containsKey(reportingEmployeeId)) {
+                databaseCalls++;
+            }
+            Employee reportingEmployee = load(employeeCache, employeeWrites, employeeLoads, reportingEmployeeId,
+                                              employeeRepository::findByEmployeeId);
+            if (reportingEmployee != null) {
+                pending.addAll(getDirectReportIds(reportingEmployee));
+            }
+        }
+
+        int visitedReports = totalReports + duplicates;
+        if (!indexedReports.isEmpty()) {
+            ReportTraversal traversal = orgChartIndex.traverse(indexedReports, reportingMaxDepth, reportingMaxReports);
+            totalReports += checkTraversal(employee, traversal);
+            visitedReports += traversal.reports() + traversal.duplicates();
+        }
+        // The walk doesn't keep track of levels
+        reportingMetrics.record(ReportingMetrics.Source.WALK, visitedReports, databaseCalls, -1);
+
+        if (truncated) {
+            LOG.warn("Stopped counting reports for employee [{}] after [{}] reports", employee.getEmployeeId(), totalReports);
         }
 
         return totalReports;
     }
 
+    private Optional<ReportTraversal> traverseIndex(String employeeId) {
+        if (reportingTraversal == TraversalMode.PARALLEL) {
+            return orgChartIndex.traverseInParallel(employeeId, reportingMaxDepth, reportingMaxReports,
+                                                    ForkJoinPool.commonPool(), reportingParallelThreshold);
+        }
+
+        return orgChartIndex.traverse(employeeId, reportingMaxDepth, reportingMaxReports);
+    }
+
     /**
-     * Makes sure that the supplied Employee has been defined completely and tries to load it from the database if not.
-     * We need to be able to rely that on the fact that the list of direct reports for the employee is correct.
+     * Logs anything unusual found while walking the reporting hierarchy of the employee.
+     *
+     * @return the number of reports found by the walk
      */
-    private Employee retrieveEmployeeIfNecessary(Employee employee) {
-        if (isNotComplete(employee)) {
-            // Load the employee from the database; if it can't be loaded then use the employee passed in
-            try {
-                employee = read(employee.getEmployeeId());
-            } catch (RuntimeException ex) {
-                /*
-                 * This is OK -- the employee may not be persisted yet; at this point we can take the list of direct
-                 * reports on faith
-                 */
-            }
+    private int checkTraversal(Employee employee, ReportTraversal traversal) {
+        if (traversal.cycle()) {
+            LOG.warn("Reporting hierarchy of employee [{}] contains a cycle", employee.getEmployeeId());
+        }
+        if (traversal.truncated()) {
+            LOG.warn("Stopped counting reports for employee [{}] at the limit of [{}] levels or [{}] reports",
+                    employee.getEmployeeId(), reportingMaxDepth, reportingMaxReports);
         }
+        if (traversal.duplicates() > 0) {
+            LOG.debug("Employee [{}] reached [{}] reports through more than one manager",
+                    employee.getEmployeeId(), traversal.duplicates());
+        }
+
+        return traversal.reports();
+    }
 
+    private static Employee stub(String employeeId) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
         return employee;
     }
 
     /**
-     * Determines if the provided Employee object is complete by evaluating a subset of fields for null values.
-     *
-     * If the employeeId is not null and the other fields (except directReports) are null then the Employee probably
-     * needs to be loaded from the database to be complete.
+     * Identifies a reporting structure count by the employee and the direct reports it was counted with, so a request
+     * passing an employee whose reports differ from the one being counted doesn't share its result.
+     */
+    private record ReportCountKey(String employeeId, List<String> directReportIds) {
+    }
+
+    private List<String> getDirectReportIds(Employee employee) {
+        return Optional.ofNullable(employee.getDirectReportIds())
+                       .orElse(Collections.emptyList());
+    }
+
+    /**
+     * Counts the reports for a persisted employee with a single $graphLookup aggregation.
      *
-     * @return true if the Employee does not seem to be complete; false if it does
+     * @return number of reporting employees; empty if the employee isn't persisted or the database doesn't support
+     *         the aggregation
      */
-    private boolean isNotComplete(Employee employee) {
-        return  (employee.getEmployeeId() != null)
-                && (employee.getFirstName() == null)
-                && (employee.getLastName() == null)
-                && (employee.getPosition() == null)
-                && (employee.getDepartment() == null);
+    private OptionalInt countReportsByAggregation(String employeeId) {
+        if (!aggregationSupported || employeeId == null) {
+            return OptionalInt.empty();
+        }
+        if (reportingMaxDepth < 1) {
+            // Not even the direct reports are counted, and $graphLookup rejects a negative maxDepth
+            return OptionalInt.of(0);
+        }
+
+        try {
+            Integer totalReports = employeeRepository.countReports(employeeId, reportingMaxDepth - 1);
+            return (totalReports != null) ? OptionalInt.of(totalReports) : OptionalInt.empty();
+        } catch (DataAccessException ex) {
+            if (!(ex.getCause() instanceof MongoCommandException)) {
+                throw ex;
+            }
+
+            LOG.warn("Database does not support $graphLookup; falling back to recursive traversal", ex);
+            aggregationSupported = false;
+            return OptionalInt.empty();
+        }
     }
 }
@@ -0,0 +1,942 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of the reporting hierarchy so reporting structure queries don't need a database round-trip for
+ * every employee in the subtree.
+ *
+ * Each employeeId is interned to a dense int and the manager/report relationships are held as primitive int
+ * adjacency arrays.  The transitive report count of every employee is materialized alongside the adjacency and kept
+ * current incrementally: replacing an employee's direct reports only adjusts the counts along its ancestor paths, so
+ * a reorg costs O(depth) rather than a walk of the subtree.  Reading the count of an employee is O(1) as long as the
+ * hierarchy below them is a tree (nobody in it has two managers and nobody reports to themselves); a shared report or
+ * a cycle elsewhere in the org chart doesn't matter.  Otherwise counts come from an iterative, bounded walk that
+ * tracks visited employees in a bit set so shared reports are counted once and cycles terminate.
+ *
+ * An employee that is referenced as a direct report before its own record has been indexed gets a placeholder slot;
+ * it is only considered indexed once {@link #put(Employee)} has been called for it.
+ */
+@Component
+public class OrgChartIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int[] NO_EDGES = new int[0];
+
+    /**
+     * Ancestor adjustments allowed per employee in the index before maintaining the counts incrementally is abandoned
+     * in favor of a full recompute; only reachable when many employees have more than one manager.
+     */
+    private static final int PROPAGATION_BUDGET_FACTOR = 4;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final BitSet indexed = new BitSet();
+
+    private String[] employeeIds = new String[INITIAL_CAPACITY];
+    private int[][] children = new int[INITIAL_CAPACITY][];
+    private int[] childCount = new int[INITIAL_CAPACITY];
+    private int[][] parents = new int[INITIAL_CAPACITY][];
+    private int[] parentCount = new int[INITIAL_CAPACITY];
+    private int[] reportCount = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Number of times an employee with more than one manager is reached below each employee, once per reporting path.
+     * Counted alongside reportCount, which is only the number of distinct reports while this is zero.
+     */
+    private long[] sharedBelow = new long[INITIAL_CAPACITY];
+
+    /**
+     * Employees whose reportCount and sharedBelow are current.  Employees on or above a cycle can't be counted, and
+     * nobody is counted while a load without counts waits for {@link #recount()}.
+     */
+    private final BitSet counted = new BitSet();
+
+    /*
+     * Scratch counters per employee for putInternal, which only runs under the write lock; left at zero after use
+     */
+    private int[] managerChanges = new int[INITIAL_CAPACITY];
+    private int[] pendingReports = new int[INITIAL_CAPACITY];
+
+    /*
+     * Scratch marks for closesCycle, which only runs under the write lock.  Only the marks that were set are cleared
+     * after each use, so a put doesn't cost time or garbage in proportion to the size of the index.
+     */
+    private long[] reportMarks = new long[1];
+    private long[] ancestorMarks = new long[1];
+    private int[] ancestors = new int[INITIAL_CAPACITY];
+
+    /**
+     * Indexes (or re-indexes) every supplied employee.  The report counts are recomputed once in a single bottom-up
+     * pass after all of the edges have been recorded rather than maintained per employee.
+     */
+    public void load(Iterable<Employee> employees) {
+        lock.writeLock().lock();
+        try {
+            for (Employee employee : employees) {
+                putEdges(employee);
+            }
+            recomputeReportCounts();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes (or re-indexes) the supplied employees without recounting, for loading the org chart in batches that
+     * are too large to hold at once.  Until {@link #recount()} is called the index answers by walking the hierarchy.
+     */
+    public void loadWithoutCounts(Iterable<Employee> employees) {
+        lock.writeLock().lock();
+        try {
+            for (Employee employee : employees) {
+                putEdges(employee);
+            }
+            counted.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes the report counts of every employee in a single bottom-up pass.
+     */
+    public void recount() {
+        lock.writeLock().lock();
+        try {
+            recomputeReportCounts();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the employee, replacing any direct reports previously recorded for it.
+     *
+     * @param employee the employee; ignored if it has no employeeId
+     */
+    public void put(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            putInternal(employee);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every employee from the index, which then answers nothing until employees are indexed again.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            indexById.clear();
+            indexed.clear();
+            employeeIds = new String[INITIAL_CAPACITY];
+            children = new int[INITIAL_CAPACITY][];
+            childCount = new int[INITIAL_CAPACITY];
+            parents = new int[INITIAL_CAPACITY][];
+            parentCount = new int[INITIAL_CAPACITY];
+            reportCount = new int[INITIAL_CAPACITY];
+            sharedBelow = new long[INITIAL_CAPACITY];
+            managerChanges = new int[INITIAL_CAPACITY];
+            pendingReports = new int[INITIAL_CAPACITY];
+            counted.clear();
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return true if the employee's record (and so its list of direct reports) has been indexed
+     */
+    public boolean contains(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = indexById.get(employeeId);
+            return (node != null) && indexed.get(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up the managers of an employee: every indexed employee that lists the employee as a direct report.  The
+     * back-pointers are kept current by every {@link #put(Employee)}, so they don't need to be stored with the
+     * employee.
+     *
+     * @param employeeId the ID of the employee
+     * @return the IDs of the managers; empty if nobody indexed manages the employee
+     */
+    public List<String> getManagers(String employeeId) {
+        lock.readLock().lock();
+        try {
+            Integer node = indexById.get(employeeId);
+            if (node == null) {
+                return Collections.emptyList();
+            }
+
+            List<String> managers = new ArrayList<>(parentCount[node]);
+            for (int i = 0; i < parentCount[node]; i++) {
+                managers.add(employeeIds[parents[node][i]]);
+            }
+            return managers;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Determines the number of distinct employees with a direct or indirect reporting relationship with the employee.
+     *
+     * @param employeeId the ID of the employee
+     * @return the number of reports; empty if the employee has not been indexed
+     */
+    public OptionalInt countReports(String employeeId) {
+        return traverse(employeeId, Integer.MAX_VALUE, Integer.MAX_VALUE)
+                .map(traversal -> OptionalInt.of(traversal.reports()))
+                .orElse(OptionalInt.empty());
+    }
+
+    /**
+     * Walks the reporting hierarchy below the employee.  The walk is answered from the materialized counts when
+     * possible, in which case the limits don't apply.
+     *
+     * @param employeeId the ID of the employee
+     * @param maxDepth the number of reporting levels to follow; direct reports are level 1
+     * @param maxReports the number of reports after which the walk stops
+     * @return the outcome of the walk; empty if the employee has not been indexed
+     */
+    public Optional<ReportTraversal> traverse(String employeeId, int maxDepth, int maxReports) {
+        lock.readLock().lock();
+        try {
+            Integer node = indexById.get(employeeId);
+            if ((node == null) || !indexed.get(node)) {
+                return Optional.empty();
+            }
+
+            if (counted.get(node) && sharedBelow[node] == 0) {
+                return Optional.of(new ReportTraversal(reportCount[node], 0, false, false, -1));
+            }
+
+            return Optional.of(walk(node, children[node], childCount[node], maxDepth, maxReports));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks the reporting hierarchy below the employee like {@link #traverse(String, int, int)}, but splits the direct
+     * reports of any employee with more than threshold of them into chunks walked concurrently in the pool.
+     *
+     * Employees are claimed in a shared atomic bit set so each is still counted once, but without a single current
+     * path only a cycle back to the employee at the top of the walk is reported as one; other cycles are reported as
+     * duplicates.  The depth limit only cuts off the branch that goes beyond it; the rest of the walk carries on.  An
+     * employee reachable along two paths of different lengths is claimed by whichever thread gets there first, so when
+     * the limit truncates the walk the count can differ slightly from the sequential walk.
+     *
+     * @param pool the pool to run the walk in
+     * @param threshold the number of direct reports up to which an employee's reports are walked by a single thread
+     */
+    public Optional<ReportTraversal> traverseInParallel(String employeeId, int maxDepth, int maxReports,
+                                                        ForkJoinPool pool, int threshold) {
+        lock.readLock().lock();
+        try {
+            Integer node = indexById.get(employeeId);
+            if ((node == null) || !indexed.get(node)) {
+                return Optional.empty();
+            }
+
+            if (counted.get(node) && sharedBelow[node] == 0) {
+                return Optional.of(new ReportTraversal(reportCount[node], 0, false, false, -1));
+            }
+
+            // The read lock held by this thread keeps the adjacency arrays stable for the pool's threads
+            ParallelWalk walk = new ParallelWalk(node, maxDepth, maxReports, Math.max(1, threshold));
+            pool.invoke(walk.new WalkTask(children[node], 0, childCount[node], 1));
+            return Optional.of(walk.result());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Walks the reporting hierarchy below a group of employees.  The employees themselves are counted as reports
+     * (at level 1) along with everybody who reports to any of them, each employee being counted only once.
+     * Employees that have not been indexed are skipped.
+     *
+     * @param employeeIds the IDs of the employees at the top of the walk
+     * @param maxDepth the number of reporting levels to follow; the supplied employees are level 1
+     * @param maxReports the number of reports after which the walk stops
+     * @return the outcome of the walk
+     */
+    public ReportTraversal traverse(Collection<String> employeeIds, int maxDepth, int maxReports) {
+        lock.readLock().lock();
+        try {
+            int[] roots = new int[employeeIds.size()];
+            int count = 0;
+
+            for (String employeeId : employeeIds) {
+                Integer node = indexById.get(employeeId);
+                if ((node != null) && indexed.get(node)) {
+                    roots[count++] = node;
+                }
+            }
+
+            return walk(-1, roots, count, maxDepth, maxReports);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Iterative depth-first walk with an explicit stack so neither depth nor cycles can exhaust the thread's stack.
+     * An employee reached again while it is still on the current path closes a cycle; one reached again after its
+     * subtree has been finished is a shared report.  Neither is counted twice.
+     *
+     * @param root the node at the top of the walk, not counted itself; -1 if the top edges don't belong to a node
+     * @param topEdges the nodes one level below the root
+     * @param topCount the number of entries in topEdges to use
+     */
+    private ReportTraversal walk(int root, int[] topEdges, int topCount, int maxDepth, int maxReports) {
+        // Plain words rather than BitSet, whose clear() rescans for the highest word in use every time
+        long[] visited = new long[(size >>> 6) + 1];
+        long[] onPath = new long[(size >>> 6) + 1];
+
+        int[][] frameEdges = new int[INITIAL_CAPACITY][];
+        int[] frameCount = new int[INITIAL_CAPACITY];
+        int[] framePosition = new int[INITIAL_CAPACITY];
+        int[] frameNode = new int[INITIAL_CAPACITY];
+        int depth = 0;
+
+        frameEdges[0] = topEdges;
+        frameCount[0] = topCount;
+        frameNode[0] = root;
+        if (root >= 0) {
+            set(visited, root);
+            set(onPath, root);
+        }
+
+        int reports = 0;
+        int duplicates = 0;
+        int deepest = 0;
+        boolean cycle = false;
+        boolean truncated = false;
+
+        while (depth >= 0) {
+            if (framePosition[depth] == frameCount[depth]) {
+                // Every report of this node has been handled; step back up
+                if (frameNode[depth] >= 0) {
+                    clear(onPath, frameNode[depth]);
+                }
+                depth--;
+                continue;
+            }
+
+            int report = frameEdges[depth][framePosition[depth]++];
+
+            if (get(onPath, report)) {
+                cycle = true;
+                continue;
+            }
+            if (get(visited, report)) {
+                duplicates++;
+                continue;
+            }
+            if (depth + 1 > maxDepth) {
+                truncated = true;
+                continue;
+            }
+            if (reports == maxReports) {
+                truncated = true;
+                break;
+            }
+
+            set(visited, report);
+            set(onPath, report);
+            reports++;
+
+            depth++;
+            deepest = Math.max(deepest, depth);
+            if (depth == frameEdges.length) {
+                int capacity = depth * 2;
+                frameEdges = Arrays.copyOf(frameEdges, capacity);
+                frameCount = Arrays.copyOf(frameCount, capacity);
+                framePosition = Arrays.copyOf(framePosition, capacity);
+                frameNode = Arrays.copyOf(frameNode, capacity);
+            }
+            frameEdges[depth] = children[report];
+            frameCount[depth] = childCount[report];
+            framePosition[depth] = 0;
+            frameNode[depth] = report;
+        }
+
+        return new ReportTraversal(reports, duplicates, cycle, truncated, deepest);
+    }
+
+    private static boolean get(long[] bits, int node) {
+        return (bits[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private static void set(long[] bits, int node) {
+        bits[node >>> 6] |= 1L << node;
+    }
+
+    private static void clear(long[] bits, int node) {
+        bits[node >>> 6] &= ~(1L << node);
+    }
+
+    /**
+     * State shared by the tasks of one parallel walk.
+     */
+    private final class ParallelWalk {
+        private final int root;
+        private final int maxDepth;
+        private final int maxReports;
+        private final int threshold;
+
+        private final int[][] children = OrgChartIndex.this.children;
+        private final int[] childCount = OrgChartIndex.this.childCount;
+
+        private final AtomicLongArray visited;
+        private final AtomicInteger reports = new AtomicInteger();
+        private final LongAdder duplicates = new LongAdder();
+        private final AtomicInteger deepest = new AtomicInteger();
+        private volatile boolean cycle;
+        private volatile boolean truncated;
+
+        /** Set once maxReports is reached, which ends every task of the walk */
+        private volatile boolean stopped;
+
+        private ParallelWalk(int root, int maxDepth, int maxReports, int threshold) {
+            this.root = root;
+            this.maxDepth = maxDepth;
+            this.maxReports = maxReports;
+            this.threshold = threshold;
+            this.visited = new AtomicLongArray((size >>> 6) + 1);
+            claim(root);
+        }
+
+        /**
+         * @return true if this call marked the node as visited; false if it already was
+         */
+        private boolean claim(int node) {
+            int word = node >>> 6;
+            long bit = 1L << node;
+            long current;
+
+            do {
+                current = visited.get(word);
+                if ((current & bit) != 0) {
+                    return false;
+                }
+            } while (!visited.compareAndSet(word, current, current | bit));
+
+            return true;
+        }
+
+        private ReportTraversal result() {
+            return new ReportTraversal(Math.min(reports.get(), maxReports), duplicates.intValue(), cycle, truncated,
+                                       deepest.get());
+        }
+
+        /**
+         * Walks the subtrees of a range of nodes that are all at the same level.
+         */
+        private final class WalkTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int[] nodes;
+            private final int from;
+            private final int to;
+            private final int level;
+
+            private WalkTask(int[] nodes, int from, int to, int level) {
+                this.nodes = nodes;
+                this.from = from;
+                this.to = to;
+                this.level = level;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > threshold) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new WalkTask(nodes, from, middle, level), new WalkTask(nodes, middle, to, level));
+                    return;
+                }
+
+                int[] stackNode = new int[INITIAL_CAPACITY];
+                int[] stackLevel = new int[INITIAL_CAPACITY];
+                int top = 0;
+                int taskDeepest = 0;
+                List<WalkTask> forked = new ArrayList<>();
+
+                for (int i = to - 1; i >= from; i--) {
+                    if (top == stackNode.length) {
+                        stackNode = Arrays.copyOf(stackNode, top * 2);
+                        stackLevel = Arrays.copyOf(stackLevel, top * 2);
+                    }
+                    stackNode[top] = nodes[i];
+                    stackLevel[top++] = level;
+                }
+
+                while (top > 0 && !stopped) {
+                    int node = stackNode[--top];
+                    int nodeLevel = stackLevel[top];
+
+                    if (node == root) {
+                        cycle = true;
+                        continue;
+                    }
+                    if (nodeLevel > maxDepth) {
+                        // Only this branch ends here
+                        truncated = true;
+                        continue;
+                    }
+                    if (!claim(node)) {
+                        duplicates.increment();
+                        continue;
+                    }
+                    if (reports.incrementAndGet() > maxReports) {
+                        truncated = true;
+                        stopped = true;
+                        break;
+                    }
+                    taskDeepest = Math.max(taskDeepest, nodeLevel);
+
+                    int count = childCount[node];
+                    if (count > threshold) {
+                        // Wide fan-out: hand the reports to the pool instead of walking them on this thread
+                        WalkTask task = new WalkTask(children[node], 0, count, nodeLevel + 1);
+                        task.fork();
+                        forked.add(task);
+                        continue;
+                    }
+
+                    if (top + count > stackNode.length) {
+                        int capacity = Math.max(stackNode.length * 2, top + count);
+                        stackNode = Arrays.copyOf(stackNode, capacity);
+                        stackLevel = Arrays.copyOf(stackLevel, capacity);
+                    }
+                    for (int i = count - 1; i >= 0; i--) {
+                        stackNode[top] = children[node][i];
+                        stackLevel[top++] = nodeLevel + 1;
+                    }
+                }
+                // Published once per task rather than per employee to keep the threads off a shared hot spot
+                deepest.accumulateAndGet(taskDeepest, Math::max);
+
+                for (WalkTask task : forked) {
+                    task.join();
+                }
+            }
+        }
+    }
+
+    private void putInternal(Employee employee) {
+        if (employee.getEmployeeId() == null) {
+            return;
+        }
+
+        int node = intern(employee.getEmployeeId());
+        int[] previousReports = children[node];
+        int previousCount = childCount[node];
+        putEdges(employee);
+
+        boolean incremental = counted.get(node) && reportsCounted(node) && !closesCycle(node);
+        if (!incremental) {
+            // Keeps the adjustments below from going around a cycle the change may have closed
+            counted.clear(node);
+        }
+
+        boolean propagated = propagateSharedChanges(node, previousReports, previousCount);
+
+        if (incremental) {
+            int previousReportCount = reportCount[node];
+            long previousSharedBelow = sharedBelow[node];
+            count(node);
+
+            int delta = reportCount[node] - previousReportCount;
+            long sharedDelta = sharedBelow[node] - previousSharedBelow;
+            if (delta != 0 || sharedDelta != 0) {
+                propagated = propagateToAncestors(node, delta, sharedDelta) && propagated;
+            }
+        } else {
+            // The change may have closed or broken a cycle, which only affects the counts of the employee's managers
+            recountWithAncestors(node);
+        }
+
+        if (!propagated) {
+            recomputeReportCounts();
+        }
+    }
+
+    /**
+     * @return whether every direct report of the node has been counted
+     */
+    private boolean reportsCounted(int node) {
+        for (int i = 0; i < childCount[node]; i++) {
+            if (!counted.get(children[node][i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adjusts the ancestors of the employees that gained or lost their second manager when the node's direct reports
+     * were replaced, through every manager but the node, whose own count is redone by the caller.
+     *
+     * @return false if an adjustment was abandoned because there were too many paths, leaving the counts invalid
+     */
+    private boolean propagateSharedChanges(int node, int[] previousReports, int previousCount) {
+        for (int i = 0; i < previousCount; i++) {
+            managerChanges[previousReports[i]]--;
+        }
+        for (int i = 0; i < childCount[node]; i++) {
+            managerChanges[children[node][i]]++;
+        }
+
+        boolean propagated = propagateSharedChanges(node, previousReports, previousCount, true);
+        return propagateSharedChanges(node, children[node], childCount[node], propagated);
+    }
+
+    private boolean propagateSharedChanges(int node, int[] reports, int count, boolean propagated) {
+        for (int i = 0; i < count; i++) {
+            int report = reports[i];
+            int change = managerChanges[report];
+            if (change == 0) {
+                // Unchanged, or already handled
+                continue;
+            }
+            managerChanges[report] = 0;
+
+            boolean shared = parentCount[report] > 1;
+            if (shared == (parentCount[report] - change > 1)) {
+                continue;
+            }
+            long delta = shared ? 1 : -1;
+            for (int j = 0; j < parentCount[report]; j++) {
+                int manager = parents[report][j];
+                if (manager != node && counted.get(manager)) {
+                    sharedBelow[manager] += delta;
+                    propagated = propagated && propagateToAncestors(manager, 0, delta);
+                }
+            }
+        }
+        return propagated;
+    }
+
+    /**
+     * Counts the node and all of its ancestors again, from the counts of their direct reports.  A change to the node's
+     * direct reports can't affect anybody else.  Those still on or above a cycle are left uncounted.
+     */
+    private void recountWithAncestors(int node) {
+        // Every ancestor, found in the scratch space of closesCycle
+        int reached = 0;
+        ancestors[reached++] = node;
+        growMarks();
+        set(ancestorMarks, node);
+        for (int next = 0; next < reached; next++) {
+            int ancestor = ancestors[next];
+            for (int i = 0; i < parentCount[ancestor]; i++) {
+                int parent = parents[ancestor][i];
+                if (!get(ancestorMarks, parent)) {
+                    set(ancestorMarks, parent);
+                    if (reached == ancestors.length) {
+                        ancestors = Arrays.copyOf(ancestors, reached * 2);
+                    }
+                    ancestors[reached++] = parent;
+                }
+            }
+        }
+
+        // Count bottom-up like recomputeReportCounts, but only within the ancestors
+        for (int i = 0; i < reached; i++) {
+            counted.clear(ancestors[i]);
+        }
+        int[] ready = new int[reached];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < reached; i++) {
+            int ancestor = ancestors[i];
+            for (int j = 0; j < childCount[ancestor]; j++) {
+                if (!counted.get(children[ancestor][j])) {
+                    pendingReports[ancestor]++;
+                }
+            }
+            if (pendingReports[ancestor] == 0) {
+                ready[tail++] = ancestor;
+            }
+        }
+
+        while (head < tail) {
+            int ancestor = ready[head++];
+            count(ancestor);
+            for (int i = 0; i < parentCount[ancestor]; i++) {
+                int parent = parents[ancestor][i];
+                if (--pendingReports[parent] == 0) {
+                    ready[tail++] = parent;
+                }
+            }
+        }
+
+        for (int i = 0; i < reached; i++) {
+            pendingReports[ancestors[i]] = 0;
+            clear(ancestorMarks, ancestors[i]);
+        }
+    }
+
+    /**
+     * Counts the node from the counts of its direct reports, all of which have to be counted.
+     */
+    private void count(int node) {
+        int totalReports = 0;
+        long shared = 0;
+        for (int i = 0; i < childCount[node]; i++) {
+            int child = children[node][i];
+            totalReports += 1 + reportCount[child];
+            shared += sharedBelow[child] + ((parentCount[child] > 1) ? 1 : 0);
+        }
+        reportCount[node] = totalReports;
+        sharedBelow[node] = shared;
+        counted.set(node);
+    }
+
+    /**
+     * Replaces the reporting edges of the employee without touching any report counts.
+     *
+     * @return the employee's node; -1 if it has no employeeId
+     */
+    private int putEdges(Employee employee) {
+        if (employee.getEmployeeId() == null) {
+            return -1;
+        }
+
+        int node = intern(employee.getEmployeeId());
+
+        // Drop the existing reporting edges before recording the new ones
+        for (int i = 0; i < childCount[node]; i++) {
+            removeParent(children[node][i], node);
+        }
+
+        List<String> directReportIds = Optional.ofNullable(employee.getDirectReportIds())
+                                               .orElse(Collections.emptyList());
+        int[] reportNodes = new int[directReportIds.size()];
+        int count = 0;
+
+        for (String directReportId : directReportIds) {
+            if (directReportId != null) {
+                int child = intern(directReportId);
+                reportNodes[count++] = child;
+                addParent(child, node);
+            }
+        }
+
+        children[node] = reportNodes;
+        childCount[node] = count;
+        indexed.set(node);
+
+        return node;
+    }
+
+    /**
+     * Determines whether one of the node's direct reports is the node itself or one of its (indirect) managers.  Only
+     * the node's ancestors are visited.
+     */
+    private boolean closesCycle(int node) {
+        int count = childCount[node];
+        if (count == 0) {
+            return false;
+        }
+
+        growMarks();
+
+        for (int i = 0; i < count; i++) {
+            set(reportMarks, children[node][i]);
+        }
+
+        // The ancestors found so far double as the queue of those still to be visited
+        int reached = 0;
+        ancestors[reached++] = node;
+        set(ancestorMarks, node);
+        boolean cycle = false;
+
+        for (int next = 0; next < reached; next++) {
+            int ancestor = ancestors[next];
+            if (get(reportMarks, ancestor)) {
+                cycle = true;
+                break;
+            }
+
+            for (int i = 0; i < parentCount[ancestor]; i++) {
+                int parent = parents[ancestor][i];
+                if (!get(ancestorMarks, parent)) {
+                    set(ancestorMarks, parent);
+                    if (reached == ancestors.length) {
+                        ancestors = Arrays.copyOf(ancestors, reached * 2);
+                    }
+                    ancestors[reached++] = parent;
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            clear(reportMarks, children[node][i]);
+        }
+        for (int i = 0; i < reached; i++) {
+            clear(ancestorMarks, ancestors[i]);
+        }
+        return cycle;
+    }
+
+    private void growMarks() {
+        int words = (size >>> 6) + 1;
+        if (reportMarks.length < words) {
+            // Grown ahead of the index so the marks aren't reallocated for every new employee
+            reportMarks = new long[words * 2];
+            ancestorMarks = new long[words * 2];
+        }
+    }
+
+    /**
+     * Adjusts the report count and shared reports of every counted ancestor of the node by the deltas.  An ancestor
+     * that can be reached through more than one path is adjusted once per path, matching how its counts include the
+     * node once per path.  The ancestors of an employee that isn't counted aren't counted either, so the adjustment
+     * stops there.
+     *
+     * @return false if the adjustment was abandoned because there were too many paths, leaving the counts invalid
+     */
+    private boolean propagateToAncestors(int node, int delta, long sharedDelta) {
+        long budget = (long) PROPAGATION_BUDGET_FACTOR * size;
+        int[] stack = new int[INITIAL_CAPACITY];
+        int top = 0;
+        stack[top++] = node;
+
+        while (top > 0) {
+            int current = stack[--top];
+            int count = parentCount[current];
+
+            if (top + count > stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + count));
+            }
+            for (int i = 0; i < count; i++) {
+                int parent = parents[current][i];
+                if (counted.get(parent)) {
+                    reportCount[parent] += delta;
+                    sharedBelow[parent] += sharedDelta;
+                    stack[top++] = parent;
+                }
+            }
+
+            budget -= count;
+            if (budget < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Recomputes every report count from scratch, visiting each employee only once all of its direct reports have
+     * been counted.  Reports shared by more than one manager are counted once per path.  Employees on or above a cycle
+     * are never visited, and are left uncounted.
+     */
+    private void recomputeReportCounts() {
+        counted.clear();
+        int[] pending = Arrays.copyOf(childCount, size);
+        int[] ready = new int[size];
+        int head = 0;
+        int tail = 0;
+
+        for (int node = 0; node < size; node++) {
+            if (pending[node] == 0) {
+                ready[tail++] = node;
+            }
+        }
+
+        while (head < tail) {
+            int node = ready[head++];
+            count(node);
+
+            for (int i = 0; i < parentCount[node]; i++) {
+                int parent = parents[node][i];
+                if (--pending[parent] == 0) {
+                    ready[tail++] = parent;
+                }
+            }
+        }
+    }
+
+    private int intern(String employeeId) {
+        Integer existing = indexById.get(employeeId);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (size == employeeIds.length) {
+            int capacity = size * 2;
+            employeeIds = Arrays.copyOf(employeeIds, capacity);
+            children = Arrays.copyOf(children, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            parentCount = Arrays.copyOf(parentCount, capacity);
+            reportCount = Arrays.copyOf(reportCount, capacity);
+            sharedBelow = Arrays.copyOf(sharedBelow, capacity);
+            managerChanges = Arrays.copyOf(managerChanges, capacity);
+            pendingReports = Arrays.copyOf(pendingReports, capacity);
+        }
+
+        int node = size++;
+        employeeIds[node] = employeeId;
+        children[node] = NO_EDGES;
+        parents[node] = NO_EDGES;
+        // Nobody reports to a new employee yet
+        counted.set(node);
+        indexById.put(employeeId, node);
+        return node;
+    }
+
+    private void addParent(int node, int parent) {
+        int count = parentCount[node];
+        if (count == parents[node].length) {
+            parents[node] = Arrays.copyOf(parents[node], Math.max(4, count * 2));
+        }
+        parents[node][count] = parent;
+        parentCount[node] = count + 1;
+    }
+
+    private void removeParent(int node, int parent) {
+        int count = parentCount[node];
+        for (int i = 0; i < count; i++) {
+            if (parents[node][i] == parent) {
+                parents[node][i] = parents[node][count - 1];
+                parentCount[node] = count - 1;
+                return;
+            }
+        }
+    }
+}
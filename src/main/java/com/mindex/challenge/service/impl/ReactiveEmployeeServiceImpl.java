@@ -0,0 +1,189 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.reactive.ReactiveCompensationRepository;
+import com.mindex.challenge.dao.reactive.ReactiveEmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads and writes straight through to the database.  Unlike {@link EmployeeServiceImpl} nothing is cached or indexed
+ * in memory, so a request never blocks its thread and the service scales with the number of open connections rather
+ * than threads.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReactiveCompensationRepository compensationRepository;
+
+    @Value("${challenge.reporting.max-depth:100}")
+    private int reportingMaxDepth;
+
+    @Value("${challenge.reporting.max-reports:1000000}")
+    private int reportingMaxReports;
+
+    /** Number of queries for one level of the hierarchy that may be in flight at once */
+    @Value("${challenge.reporting.reactive.concurrency:8}")
+    private int reportingConcurrency;
+
+    /** Number of employees looked up by each query */
+    @Value("${challenge.reporting.reactive.batch-size:100}")
+    private int reportingBatchSize;
+
+    @Override
+    public Mono<Employee> create(Employee employee) {
+        LOG.debug("Creating employee [{} {}]", employee.getFirstName(), employee.getLastName());
+
+        employee.setEmployeeId(UUID.randomUUID().toString());
+        return employeeRepository.insert(employee);
+    }
+
+    @Override
+    public Mono<Employee> read(String id) {
+        LOG.debug("Retrieving employee with id [{}]", id);
+
+        return Mono.justOrEmpty(id)
+                   .flatMap(employeeRepository::findByEmployeeId)
+                   .switchIfEmpty(Mono.error(() -> new RuntimeException("Invalid employeeId: " + id)));
+    }
+
+    @Override
+    public Mono<Employee> update(Employee employee) {
+        LOG.debug("Updating employee [{}]", employee.getEmployeeId());
+
+        return employeeRepository.save(employee);
+    }
+
+    @Override
+    public Mono<ReportingStructure> getReportingStructure(Employee employee) {
+        ReportWalk walk = new ReportWalk(employee.getEmployeeId());
+
+        return Mono.just(List.of(employee))
+                   .expand(level -> {
+                       Set<String> nextLevel = walk.nextLevel(level);
+                       return nextLevel.isEmpty() ? Mono.empty() : lookUp(nextLevel);
+                   })
+                   .then(Mono.fromSupplier(() -> {
+                       if (walk.truncated) {
+                           LOG.warn("Stopped counting reports for employee [{}] at the limit of [{}] levels or [{}] reports",
+                                    employee.getEmployeeId(), reportingMaxDepth, reportingMaxReports);
+                       }
+                       return new ReportingStructure(employee, walk.reports);
+                   }));
+    }
+
+    /**
+     * Looks up the employees of one level of the hierarchy, a batch per query with a bounded number of queries in
+     * flight.  An employee that isn't persisted has no reports to follow, so it's left out.
+     *
+     * @param employeeIds the IDs of the employees of the level
+     * @return the persisted employees of the level
+     */
+    private Mono<List<Employee>> lookUp(Set<String> employeeIds) {
+        return Flux.fromIterable(employeeIds)
+                   .buffer(reportingBatchSize)
+                   .flatMap(employeeRepository::findByEmployeeIdIn, reportingConcurrency)
+                   .collectList();
+    }
+
+    @Override
+    public Mono<Compensation> getCompensation(Employee employee) {
+        return Mono.justOrEmpty(employee.getEmployeeId())
+                   .flatMap(compensationRepository::findFirstByEmployeeIdOrderByEffectiveDateDesc);
+    }
+
+    @Override
+    public Mono<Compensation> getCompensation(Employee employee, LocalDate asOf) {
+        return Mono.justOrEmpty(employee.getEmployeeId())
+                   .flatMap(employeeId -> compensationRepository
+                           .findFirstByEmployeeIdAndEffectiveDateLessThanEqualOrderByEffectiveDateDesc(employeeId, asOf));
+    }
+
+    @Override
+    public Mono<Compensation> addCompensation(Employee employee, Double salary, LocalDate effectiveDate) {
+        // Make sure that the employee exists before proceeding
+        return read(employee.getEmployeeId())
+                .flatMap(persisted -> compensationRepository.insert(
+                        new Compensation(UUID.randomUUID().toString(), persisted.getEmployeeId(), salary, effectiveDate)));
+    }
+
+    /**
+     * The state of a breadth-first walk down the reporting hierarchy.  Every employee is counted once however many
+     * managers they have, and a cycle ends when it reaches an employee already counted.  Reports without an
+     * employeeId can't be told apart and are each counted.
+     *
+     * The levels are handed over one at a time, so the walk doesn't need to be thread-safe.
+     */
+    private final class ReportWalk {
+        private final Set<String> visited = new HashSet<>();
+        private int depth;
+        private int reports;
+        private boolean truncated;
+
+        ReportWalk(String employeeId) {
+            visited.add(employeeId);
+        }
+
+        /**
+         * Counts the direct reports of a level that haven't been counted yet.
+         *
+         * @return the IDs of the reports with an employeeId; empty once the bottom or a limit is reached
+         */
+        Set<String> nextLevel(Collection<Employee> level) {
+            Set<String> nextLevel = new LinkedHashSet<>();
+            List<String> directReportIds = level.stream()
+                                                .filter(employee -> employee.getDirectReportIds() != null)
+                                                .flatMap(employee -> employee.getDirectReportIds().stream())
+                                                .toList();
+            if (directReportIds.isEmpty()) {
+                return nextLevel;
+            }
+            if (depth == reportingMaxDepth) {
+                truncated = true;
+                return nextLevel;
+            }
+            depth++;
+
+            for (String directReportId : directReportIds) {
+                if (directReportId != null && !visited.add(directReportId)) {
+                    continue;
+                }
+                if (reports == reportingMaxReports) {
+                    truncated = true;
+                    nextLevel.clear();
+                    break;
+                }
+
+                reports++;
+                if (directReportId != null) {
+                    nextLevel.add(directReportId);
+                }
+            }
+            return nextLevel;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mindex.challenge.service.impl;
+
+/**
+ * An immutable summary of a walk of the reporting hierarchy below an employee.
+ *
+ * @param reports number of distinct employees directly or indirectly reporting to the employee that were reached
+ * @param duplicates number of times an employee who had already been counted was reached again through another manager
+ * @param cycle whether an employee was found to directly or indirectly report to themselves
+ * @param truncated whether the walk stopped early because it reached the depth or size limit
+ * @param depth the deepest reporting level reached, direct reports being level 1; -1 if the count was known without
+ *              walking the hierarchy
+ */
+public record ReportTraversal(int reports, int duplicates, boolean cycle, boolean truncated, int depth) {
+
+    /**
+     * @return whether the hierarchy was walked, rather than the count being known up front
+     */
+    public boolean walked() {
+        return depth >= 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mindex.challenge.service.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Records how much work each reporting structure request took, tagged by how it was answered, so a change in the
+ * shape of the org chart or a fallback to walking the hierarchy shows up in the tail latencies' explanation.
+ */
+@Component
+public class ReportingMetrics {
+
+    /**
+     * How a reporting structure was counted.
+     */
+    public enum Source {
+        /** From the in-memory org chart index */
+        INDEX,
+        /** With a $graphLookup aggregation */
+        AGGREGATION,
+        /** By walking the hierarchy through the repository */
+        WALK
+    }
+
+    private final Map<Source, DistributionSummary> nodes = new EnumMap<>(Source.class);
+    private final Map<Source, DistributionSummary> databaseCalls = new EnumMap<>(Source.class);
+    private final Map<Source, DistributionSummary> depth = new EnumMap<>(Source.class);
+
+    public ReportingMetrics(MeterRegistry registry) {
+        for (Source source : Source.values()) {
+            String tag = source.name().toLowerCase();
+            nodes.put(source, DistributionSummary.builder("challenge.reporting.nodes")
+                    .description("Employees visited to count a reporting structure")
+                    .tag("source", tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            databaseCalls.put(source, DistributionSummary.builder("challenge.reporting.database.calls")
+                    .description("Database round-trips made to count a reporting structure")
+                    .tag("source", tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+            depth.put(source, DistributionSummary.builder("challenge.reporting.depth")
+                    .description("Deepest reporting level visited to count a reporting structure")
+                    .tag("source", tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Records one reporting structure request.
+     *
+     * @param visited number of employees visited, counting those reached through more than one manager each time
+     * @param depth the deepest reporting level visited; negative if not known
+     */
+    public void record(Source source, int visited, int databaseCalls, int depth) {
+        nodes.get(source).record(visited);
+        this.databaseCalls.get(source).record(databaseCalls);
+        if (depth >= 0) {
+            this.depth.get(source).record(depth);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mindex.challenge.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key: the first caller runs the computation on its own thread and
+ * every caller that asks for the key while it's running waits for and shares its result, including any exception.
+ * Nothing is kept once the computation finishes, so this is not a cache.
+ *
+ * A caller that arrives after the underlying data was written must not be handed a result computed before the write,
+ * so writers {@link #forget} the keys they affect; later callers then start a computation of their own.
+ *
+ * @param <K> the key type
+ * @param <V> the result type; null results are allowed
+ */
+final class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs the computation for the key, or waits for the one already running.
+     */
+    V execute(K key, Supplier<V> computation) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+
+        try {
+            V result = computation.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            call.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Makes callers arriving from now on start a new computation for the key rather than share a running one.
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Makes callers arriving from now on start new computations for every key.
+     */
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * The number of calls that shared the result of a computation started by another caller.
+     */
+    long getCoalescedCalls() {
+        return coalesced.sum();
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.SnapshotService;
+import com.mindex.challenge.snapshot.BinarySnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+@Service
+public class SnapshotServiceImpl implements SnapshotService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotServiceImpl.class);
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Override
+    public BinarySnapshot.Summary dump(Path file) throws IOException {
+        LOG.debug("Writing snapshot [{}]", file);
+
+        // Streamed from the database so the records are never all on the heap at once
+        BinarySnapshot.Summary summary;
+        try (Stream<Employee> employees = employeeRepository.streamAllBy();
+             Stream<Compensation> compensations = compensationRepository.streamAllBy()) {
+            summary = BinarySnapshot.write(file, employees, compensations);
+        }
+
+        LOG.info("Wrote [{}] employees and [{}] compensation records to snapshot [{}]",
+                summary.employees(), summary.compensations(), file);
+        return summary;
+    }
+}
@@ -0,0 +1,333 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes the employees and compensation records in a compact binary format that can be restored without
+ * any JSON parsing.
+ *
+ * The file is laid out as:
+ * <ol>
+ *     <li>a magic number and format version</li>
+ *     <li>a dictionary of every distinct string (IDs, names, positions and departments), each stored once</li>
+ *     <li>the employees, each as dictionary references to its fields followed by the references of its direct
+ *     reports</li>
+ *     <li>the compensation records as columns: IDs, employee IDs, effective dates as epoch days and salaries as
+ *     doubles</li>
+ * </ol>
+ * Counts, lengths and references are unsigned varints and epoch days are zig-zag encoded varints, so small numbers
+ * take a single byte.  A reference of 0 stands for null; string n of the dictionary is referenced as n + 1.
+ *
+ * Direct reports are stored by employeeId, the same as in the database.
+ */
+public final class BinarySnapshot {
+    private static final int MAGIC = 0x4D58534E;
+    private static final byte VERSION = 1;
+
+    /** Epoch day standing in for a missing effectiveDate */
+    private static final long NO_EFFECTIVE_DATE = Long.MIN_VALUE;
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Counts of the records in a snapshot.
+     *
+     * @param employees number of employees
+     * @param compensations number of compensation records
+     * @param bytes size of the snapshot file
+     */
+    public record Summary(int employees, int compensations, long bytes) {
+    }
+
+    /**
+     * Writes a snapshot.  The snapshot is written next to the file and moved over it once complete, so a failed write
+     * never leaves a partial snapshot behind.
+     */
+    public static Summary write(Path file, List<Employee> employees, List<Compensation> compensations) throws IOException {
+        return write(file, employees.stream(), compensations.stream());
+    }
+
+    /**
+     * Writes a snapshot from streams of records, so the records never need to be held in memory at once.  The
+     * dictionary has to come first in the file but is only complete once every record has been seen, so the records
+     * are spilled to temporary files next to the snapshot in a single pass and copied in behind the dictionary.  Only
+     * the dictionary is held in memory.
+     *
+     * The streams are read one after the other and are not closed.
+     */
+    public static Summary write(Path file, Stream<Employee> employees, Stream<Compensation> compensations) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        String prefix = file.getFileName().toString();
+        List<Path> spills = new ArrayList<>();
+        Path partial = Files.createTempFile(directory, prefix, ".partial");
+        try {
+            Path employeeRecords = spill(directory, prefix, spills);
+            int employeeCount = 0;
+            try (DataOutputStream output = open(employeeRecords)) {
+                Iterator<Employee> iterator = employees.iterator();
+                while (iterator.hasNext()) {
+                    Employee employee = iterator.next();
+                    writeReference(output, employee.getEmployeeId(), dictionary, strings);
+                    writeReference(output, employee.getFirstName(), dictionary, strings);
+                    writeReference(output, employee.getLastName(), dictionary, strings);
+                    writeReference(output, employee.getPosition(), dictionary, strings);
+                    writeReference(output, employee.getDepartment(), dictionary, strings);
+
+                    List<String> directReportIds = getDirectReportIds(employee);
+                    writeVarint(output, directReportIds.size());
+                    for (String directReportId : directReportIds) {
+                        writeReference(output, directReportId, dictionary, strings);
+                    }
+                    employeeCount++;
+                }
+            }
+
+            // One spill per column
+            Path ids = spill(directory, prefix, spills);
+            Path employeeIds = spill(directory, prefix, spills);
+            Path effectiveDays = spill(directory, prefix, spills);
+            Path salaries = spill(directory, prefix, spills);
+            int compensationCount = 0;
+            try (DataOutputStream idOutput = open(ids);
+                 DataOutputStream employeeIdOutput = open(employeeIds);
+                 DataOutputStream effectiveDayOutput = open(effectiveDays);
+                 DataOutputStream salaryOutput = open(salaries)) {
+                Iterator<Compensation> iterator = compensations.iterator();
+                while (iterator.hasNext()) {
+                    Compensation compensation = iterator.next();
+                    writeReference(idOutput, compensation.id(), dictionary, strings);
+                    writeReference(employeeIdOutput, compensation.employeeId(), dictionary, strings);
+                    LocalDate effectiveDate = compensation.effectiveDate();
+                    writeVarlong(effectiveDayOutput, zigZag((effectiveDate != null) ? effectiveDate.toEpochDay() : NO_EFFECTIVE_DATE));
+                    salaryOutput.writeDouble((compensation.salary() != null) ? compensation.salary() : Double.NaN);
+                    compensationCount++;
+                }
+            }
+
+            try (DataOutputStream output = open(partial)) {
+                output.writeInt(MAGIC);
+                output.writeByte(VERSION);
+
+                writeVarint(output, strings.size());
+                for (String string : strings) {
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    writeVarint(output, bytes.length);
+                    output.write(bytes);
+                }
+
+                writeVarint(output, employeeCount);
+                Files.copy(employeeRecords, output);
+
+                writeVarint(output, compensationCount);
+                for (Path column : List.of(ids, employeeIds, effectiveDays, salaries)) {
+                    Files.copy(column, output);
+                }
+            }
+
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Summary(employeeCount, compensationCount, Files.size(file));
+        } finally {
+            Files.deleteIfExists(partial);
+            for (Path spill : spills) {
+                Files.deleteIfExists(spill);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot through a memory mapping, handing the records on in batches.  All of the employees are read
+     * before any of the compensation records.
+     *
+     * @return the counts of the records read
+     */
+    public static Summary read(Path file, int batchSize, Consumer<List<Employee>> employeeConsumer,
+                               Consumer<List<Compensation>> compensationConsumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is larger than 2GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < 5 || buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a snapshot");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+
+        String[] strings = new String[readVarint(buffer)];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readVarint(buffer)];
+            buffer.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        int employeeCount = readVarint(buffer);
+        List<Employee> employees = new ArrayList<>(Math.min(batchSize, employeeCount));
+        for (int i = 0; i < employeeCount; i++) {
+            Employee employee = new Employee();
+            employee.setEmployeeId(readReference(buffer, strings));
+            employee.setFirstName(readReference(buffer, strings));
+            employee.setLastName(readReference(buffer, strings));
+            employee.setPosition(readReference(buffer, strings));
+            employee.setDepartment(readReference(buffer, strings));
+
+            int reportCount = readVarint(buffer);
+            if (reportCount > 0) {
+                List<String> directReportIds = new ArrayList<>(reportCount);
+                for (int j = 0; j < reportCount; j++) {
+                    directReportIds.add(readReference(buffer, strings));
+                }
+                employee.setDirectReportIds(directReportIds);
+            }
+
+            employees.add(employee);
+            if (employees.size() == batchSize) {
+                employeeConsumer.accept(employees);
+                employees = new ArrayList<>(batchSize);
+            }
+        }
+        if (!employees.isEmpty()) {
+            employeeConsumer.accept(employees);
+        }
+
+        int compensationCount = readVarint(buffer);
+        int[] ids = new int[compensationCount];
+        int[] employeeIds = new int[compensationCount];
+        long[] effectiveDays = new long[compensationCount];
+        for (int i = 0; i < compensationCount; i++) {
+            ids[i] = readVarint(buffer);
+        }
+        for (int i = 0; i < compensationCount; i++) {
+            employeeIds[i] = readVarint(buffer);
+        }
+        for (int i = 0; i < compensationCount; i++) {
+            effectiveDays[i] = unZigZag(readVarlong(buffer));
+        }
+
+        List<Compensation> compensations = new ArrayList<>(Math.min(batchSize, compensationCount));
+        for (int i = 0; i < compensationCount; i++) {
+            double salary = buffer.getDouble();
+            compensations.add(new Compensation(lookup(ids[i], strings), lookup(employeeIds[i], strings),
+                                               Double.isNaN(salary) ? null : salary,
+                                               (effectiveDays[i] == NO_EFFECTIVE_DATE) ? null : LocalDate.ofEpochDay(effectiveDays[i])));
+            if (compensations.size() == batchSize) {
+                compensationConsumer.accept(compensations);
+                compensations = new ArrayList<>(batchSize);
+            }
+        }
+        if (!compensations.isEmpty()) {
+            compensationConsumer.accept(compensations);
+        }
+
+        return new Summary(employeeCount, compensationCount, buffer.capacity());
+    }
+
+    private static Path spill(Path directory, String prefix, List<Path> spills) throws IOException {
+        Path spill = Files.createTempFile(directory, prefix, ".spill");
+        spills.add(spill);
+        return spill;
+    }
+
+    private static DataOutputStream open(Path path) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+    }
+
+    private static List<String> getDirectReportIds(Employee employee) {
+        return (employee.getDirectReportIds() != null) ? employee.getDirectReportIds() : Collections.emptyList();
+    }
+
+    /**
+     * Writes a reference to the string, adding the string to the dictionary the first time it's seen.
+     */
+    private static void writeReference(OutputStream output, String string, Map<String, Integer> dictionary,
+                                       List<String> strings) throws IOException {
+        if (string == null) {
+            writeVarint(output, 0);
+            return;
+        }
+
+        Integer index = dictionary.get(string);
+        if (index == null) {
+            index = strings.size();
+            dictionary.put(string, index);
+            strings.add(string);
+        }
+        writeVarint(output, index + 1);
+    }
+
+    private static String readReference(ByteBuffer buffer, String[] strings) {
+        return lookup(readVarint(buffer), strings);
+    }
+
+    private static String lookup(int reference, String[] strings) {
+        return (reference != 0) ? strings[reference - 1] : null;
+    }
+
+    private static void writeVarint(OutputStream output, int value) throws IOException {
+        writeVarlong(output, value & 0xFFFFFFFFL);
+    }
+
+    private static void writeVarlong(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        return (int) readVarlong(buffer);
+    }
+
+    private static long readVarlong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
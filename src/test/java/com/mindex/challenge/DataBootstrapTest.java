@@ -4,16 +4,23 @@ import com.mindex.challenge.dao.CompensationRepository;
 import com.mindex.challenge.dao.EmployeeRepository;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import org.bson.Document;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.time.LocalDate;
+import java.time.Month;
 import java.util.List;
 
 import static com.mindex.challenge.TestUtils.BEST_EMPLOYEE_ID;
 import static com.mindex.challenge.TestUtils.LENNON_EMPLOYEE_ID;
+import static com.mindex.challenge.TestUtils.MCCARTNEY_EMPLOYEE_ID;
+import static com.mindex.challenge.TestUtils.STARR_EMPLOYEE_ID;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -26,6 +33,9 @@ public class DataBootstrapTest {
     @Autowired
     private CompensationRepository compensationRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Test
     public void test() {
         Employee employee = employeeRepository.findByEmployeeId(LENNON_EMPLOYEE_ID);
@@ -37,5 +47,37 @@ public class DataBootstrapTest {
 
         List<Compensation> compensationList = compensationRepository.findByEmployeeIdOrderByEffectiveDateDesc(BEST_EMPLOYEE_ID);
         assertEquals(2, compensationList.size());
+
+        Compensation compensation = compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(BEST_EMPLOYEE_ID).get();
+        assertEquals(LocalDate.of(1966, Month.DECEMBER, 5), compensation.effectiveDate());
+
+        assertTrue(mongoTemplate.indexOps(Compensation.class).getIndexInfo().stream()
+                                .map(IndexInfo::getName)
+                                .anyMatch("employeeId_effectiveDate"::equals));
+
+        // Direct reports are stored as an array of IDs
+        Document stored = mongoTemplate.getCollection("employee").find(new Document("_id", LENNON_EMPLOYEE_ID)).first();
+        assertEquals(List.of(MCCARTNEY_EMPLOYEE_ID, STARR_EMPLOYEE_ID), stored.getList("directReports", Object.class));
+    }
+
+    @Test
+    public void testMigrateDirectReports() {
+        // An employee stored while direct reports were embedded as employee documents
+        String employeeId = "migrated-" + System.nanoTime();
+        mongoTemplate.getCollection("employee").insertOne(
+                new Document("_id", employeeId)
+                        .append("firstName", "George")
+                        .append("lastName", "Martin")
+                        .append("directReports", List.of(new Document("_id", LENNON_EMPLOYEE_ID),
+                                                         new Document("_id", BEST_EMPLOYEE_ID).append("lastName", "Best"))));
+
+        assertEquals(1, employeeRepository.migrateDirectReports());
+
+        Employee migrated = employeeRepository.findByEmployeeId(employeeId);
+        assertEquals("Martin", migrated.getLastName());
+        assertEquals(List.of(LENNON_EMPLOYEE_ID, BEST_EMPLOYEE_ID), migrated.getDirectReportIds());
+
+        // Already migrated
+        assertEquals(0, employeeRepository.migrateDirectReports());
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.mindex.challenge;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedFileInputStreamTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRead() throws Exception {
+        byte[] contents = new byte[10_000];
+        new Random(42).nextBytes(contents);
+        Path path = temporaryFolder.newFile().toPath();
+        Files.write(path, contents);
+
+        // Small regions so reads cross region boundaries
+        try (InputStream inputStream = new MappedFileInputStream(path, 4096)) {
+            assertEquals(contents[0] & 0xFF, inputStream.read());
+            byte[] read = new byte[contents.length];
+            read[0] = contents[0];
+            int offset = 1;
+            int count;
+            while ((count = inputStream.read(read, offset, Math.min(3000, read.length - offset))) > 0) {
+                offset += count;
+            }
+
+            assertEquals(contents.length, offset);
+            assertArrayEquals(contents, read);
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    public void testRead_emptyFile() throws Exception {
+        try (InputStream inputStream = new MappedFileInputStream(temporaryFolder.newFile().toPath())) {
+            assertEquals(-1, inputStream.read());
+        }
+    }
+}
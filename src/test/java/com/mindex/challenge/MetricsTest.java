@@ -0,0 +1,66 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@AutoConfigureObservability
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MetricsTest {
+    private String prometheusUrl;
+    private String employeeIdUrl;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        prometheusUrl = "http://localhost:" + port + "/actuator/prometheus";
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+    }
+
+    @Test
+    public void testPrometheus() {
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, MULTI_LEVEL_MGR);
+        restTemplate.getForEntity(employeeIdUrl + "/reportingstructure", ReportingStructure.class, MULTI_LEVEL_MGR);
+        restTemplate.getForEntity(employeeIdUrl, String.class, "unknown");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(prometheusUrl, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String metrics = response.getBody();
+
+        // Endpoint timers with histograms and percentiles
+        assertTrue(metrics.contains("http_server_requests_seconds_bucket{"));
+        assertTrue(metrics.contains("uri=\"/employee/{id}/reportingstructure\""));
+        assertTrue(metrics.contains("quantile=\"0.999\""));
+        // Repository and driver timers
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_bucket{"));
+        assertTrue(metrics.contains("repository=\"EmployeeRepository\""));
+        assertTrue(metrics.contains("mongodb_driver_commands_seconds_count{"));
+        // Reporting structure work
+        assertTrue(metrics.contains("challenge_reporting_nodes_count{source=\"index\""));
+        assertTrue(metrics.contains("challenge_reporting_database_calls_sum{source=\"index\""));
+        assertTrue(metrics.contains("challenge_coalesced_calls_total{operation=\"reporting\""));
+        // Caches and connection pool
+        assertTrue(metrics.contains("cache_gets_total{cache=\"employeeCache\""));
+        assertTrue(metrics.contains("mongodb_driver_pool_checkedout{"));
+        assertTrue(metrics.contains("challenge_mongo_pool_checkout_seconds_count"));
+    }
+}
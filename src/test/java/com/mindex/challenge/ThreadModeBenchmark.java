@@ -0,0 +1,131 @@
+package com.mindex.challenge;
+
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Compares the throughput and latency of the employee API on Tomcat's platform thread pool with virtual threads
+ * (spring.threads.virtual.enabled) as the number of concurrent clients grows past the size of the pool.  Not run as
+ * part of the test suite; run the main method from the IDE or with
+ * {@code java -cp <test classpath> com.mindex.challenge.ThreadModeBenchmark [application arguments]}.  Virtual
+ * threads need Java 21; on older runtimes only the platform threads are measured.
+ *
+ * Each client keeps one request in flight: mostly reporting trees, which take a database round-trip per level, and
+ * some single employee reads.  The arguments are passed on to the application, e.g. --challenge.mongo.backend=H2 to
+ * make the database calls slower.
+ */
+public class ThreadModeBenchmark {
+    private static final int[] CONCURRENCY = { 50, 200, 1_000, 2_000 };
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("java=%s processors=%d%n", Runtime.version(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-9s %11s %10s %10s %10s %8s   (milliseconds)%n",
+                "threads", "concurrency", "requests/s", "p50", "p99", "errors");
+
+        for (boolean virtual : new boolean[] { false, true }) {
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("virtual threads need Java 21");
+                break;
+            }
+
+            // Passed as arguments so they take precedence over application.properties
+            String[] applicationArgs = Stream.concat(Stream.of("--server.port=0",
+                                                               "--spring.threads.virtual.enabled=" + virtual,
+                                                               "--logging.level.com.mindex=INFO"),
+                                                     Arrays.stream(args))
+                                             .toArray(String[]::new);
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class)
+                    .run(applicationArgs);
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                List<String> employeeIds = context.getBean(EmployeeRepository.class).findAll().stream()
+                                                  .map(Employee::getEmployeeId)
+                                                  .toList();
+
+                for (int concurrency : CONCURRENCY) {
+                    run(port, employeeIds, concurrency, WARMUP, null);
+
+                    Queue<Long> latencies = new ConcurrentLinkedQueue<>();
+                    long errors = run(port, employeeIds, concurrency, MEASUREMENT, latencies);
+                    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+                    System.out.printf("%-9s %11d %10.0f %10.1f %10.1f %8d%n",
+                            virtual ? "virtual" : "platform", concurrency,
+                            sorted.length / (double) MEASUREMENT.toSeconds(),
+                            percentile(sorted, 0.50), percentile(sorted, 0.99), errors);
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Keeps the given number of requests in flight for the duration.
+     *
+     * @param latencies receives the latency of every successful request in nanoseconds; null to discard them
+     *
+     * @return the number of failed requests
+     */
+    private static long run(int port, List<String> employeeIds, int concurrency, Duration duration,
+                              Queue<Long> latencies) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                                      .version(HttpClient.Version.HTTP_1_1)
+                                      .connectTimeout(Duration.ofSeconds(10))
+                                      .build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong errors = new AtomicLong();
+        long end = System.nanoTime() + duration.toNanos();
+
+        while (System.nanoTime() < end) {
+            inFlight.acquire();
+            String employeeId = employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+            String path = (ThreadLocalRandom.current().nextInt(10) < 7)
+                    ? "/employee/" + employeeId + "/reportingstructure/tree"
+                    : "/employee/" + employeeId;
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                                             .timeout(Duration.ofSeconds(30))
+                                             .build();
+
+            long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                  .whenComplete((response, ex) -> {
+                      if (ex != null || response.statusCode() != 200) {
+                          errors.incrementAndGet();
+                      } else if (latencies != null && System.nanoTime() < end) {
+                          latencies.add(System.nanoTime() - start);
+                      }
+                      inFlight.release();
+                  });
+        }
+
+        // Let the requests still in flight finish so they don't spill into the next run
+        inFlight.acquire(concurrency);
+        return errors.get();
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+    }
+}
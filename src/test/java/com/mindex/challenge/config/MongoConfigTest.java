@@ -0,0 +1,55 @@
+package com.mindex.challenge.config;
+
+import com.mindex.challenge.DataBootstrap;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.mindex.challenge.TestUtils.MULTI_LEVEL_MGR;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class MongoConfigTest {
+
+    @Autowired
+    private DataBootstrap dataBootstrap;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @DynamicPropertySource
+    static void h2Backend(DynamicPropertyRegistry registry) throws IOException {
+        // H2 creates the file itself
+        Path directory = Files.createTempDirectory("challenge");
+        directory.toFile().deleteOnExit();
+
+        registry.add("challenge.mongo.backend", () -> "H2");
+        registry.add("challenge.mongo.h2.file", () -> directory.resolve("challenge.mv").toString());
+    }
+
+    @Test
+    public void testH2Backend() {
+        long employeeCount = employeeRepository.count();
+        assertTrue(employeeCount > 0);
+        assertEquals(4, employeeService.getReportingStructure(employeeService.read(MULTI_LEVEL_MGR)).numberOfReports());
+
+        // Starting again on the same data only rebuilds the index
+        dataBootstrap.afterSingletonsInstantiated();
+        assertEquals(employeeCount, employeeRepository.count());
+        assertEquals(4, employeeService.getReportingStructure(employeeService.read(MULTI_LEVEL_MGR)).numberOfReports());
+    }
+}
@@ -0,0 +1,79 @@
+package com.mindex.challenge.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class RequestLoggingFilterTest {
+
+    private RequestLoggingFilter requestLoggingFilter;
+
+    private ListAppender<ILoggingEvent> appender;
+
+    @Before
+    public void setup() {
+        requestLoggingFilter = new RequestLoggingFilter();
+        ReflectionTestUtils.setField(requestLoggingFilter, "slowThreshold", Duration.ZERO);
+
+        appender = new ListAppender<>();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(RequestLoggingFilter.LOGGER_NAME)).addAppender(appender);
+    }
+
+    @After
+    public void teardown() {
+        ((Logger) LoggerFactory.getLogger(RequestLoggingFilter.LOGGER_NAME)).detachAppender(appender);
+    }
+
+    @Test
+    public void testSampled() throws Exception {
+        ReflectionTestUtils.setField(requestLoggingFilter, "sampleRate", 1.0);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employee/lennon");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/employee/{id}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setStatus(404);
+        requestLoggingFilter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        Map<String, Object> fields = appender.list.get(0).getKeyValuePairs().stream()
+                                                  .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+        assertEquals("GET", fields.get("method"));
+        assertEquals("/employee/{id}", fields.get("route"));
+        assertEquals("/employee/lennon", fields.get("uri"));
+        assertEquals(404, fields.get("status"));
+        assertEquals(true, fields.get("sampled"));
+        assertTrue(fields.containsKey("durationMs"));
+    }
+
+    @Test
+    public void testNotSampled() throws Exception {
+        ReflectionTestUtils.setField(requestLoggingFilter, "sampleRate", 0.0);
+        requestLoggingFilter.doFilter(new MockHttpServletRequest("GET", "/employee/lennon"),
+                                      new MockHttpServletResponse(), new MockFilterChain());
+        assertTrue(appender.list.isEmpty());
+
+        // Slow requests are logged whether or not they are sampled
+        ReflectionTestUtils.setField(requestLoggingFilter, "slowThreshold", Duration.ofNanos(1));
+        requestLoggingFilter.doFilter(new MockHttpServletRequest("GET", "/employee/lennon"),
+                                      new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getKeyValuePairs().stream()
+                                   .anyMatch(pair -> pair.key.equals("slow") && Boolean.TRUE.equals(pair.value)));
+    }
+}
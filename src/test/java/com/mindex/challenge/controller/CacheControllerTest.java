@@ -0,0 +1,62 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.CacheStatistics;
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CacheControllerTest {
+    private String cacheStatsUrl;
+    private String employeeIdUrl;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        cacheStatsUrl = "http://localhost:" + port + "/cache/stats";
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+    }
+
+    @Test
+    public void testStats() {
+        CacheStatistics before = getStats().get("employeeCache");
+        assertNotNull(before);
+
+        // The first read may or may not be a miss depending on which tests ran earlier, the second is always a hit
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, MULTI_LEVEL_MGR);
+        restTemplate.getForEntity(employeeIdUrl, Employee.class, MULTI_LEVEL_MGR);
+
+        CacheStatistics after = getStats().get("employeeCache");
+        assertEquals(before.hitCount() + before.missCount() + 2, after.hitCount() + after.missCount());
+        assertTrue(after.hitCount() > before.hitCount());
+        assertTrue(after.size() > 0);
+        assertNotNull(getStats().get("compensationHistoryCache"));
+    }
+
+    private Map<String, CacheStatistics> getStats() {
+        ResponseEntity<Map<String, CacheStatistics>> response = restTemplate.exchange(cacheStatsUrl, HttpMethod.GET, null,
+                new ParameterizedTypeReference<Map<String, CacheStatistics>>() {});
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+}
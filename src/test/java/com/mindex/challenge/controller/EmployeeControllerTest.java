@@ -1,7 +1,9 @@
 package com.mindex.challenge.controller;
 
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MultiGetResult;
 import com.mindex.challenge.data.ReportingStructure;
 import org.junit.Before;
 import org.junit.Test;
@@ -15,6 +17,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static com.mindex.challenge.TestUtils.*;
@@ -26,7 +31,9 @@ import static org.junit.Assert.*;
 public class EmployeeControllerTest {
     private String employeeUrl;
     private String employeeIdUrl;
+    private String bulkUrl;
     private String reportingStructureUrl;
+    private String reportingTreeUrl;
     private String compensationUrl;
 
     @LocalServerPort
@@ -39,7 +46,9 @@ public class EmployeeControllerTest {
     public void setup() {
         employeeUrl = "http://localhost:" + port + "/employee";
         employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        bulkUrl = employeeUrl + "/bulk";
         reportingStructureUrl = employeeIdUrl + "/reportingstructure";
+        reportingTreeUrl = reportingStructureUrl + "/tree";
         compensationUrl = employeeIdUrl + "/compensation";
     }
 
@@ -85,6 +94,112 @@ public class EmployeeControllerTest {
         assertEmployeeEquivalence(readEmployee, updatedEmployee);
     }
 
+    /**
+     * Note that the test relies on the data loaded from employee_database.json so changes to that file have the
+     * potential to break this test.
+     */
+    @Test
+    public void testRead_expand() {
+        // By default the direct reports only hold their IDs
+        ResponseEntity<Employee> response = restTemplate.getForEntity(employeeIdUrl, Employee.class, DIRECT_ONLY_MGR);
+        Optional<Employee> starr = validateResponse(HttpStatus.OK, response);
+        starr.ifPresentOrElse(employee -> {
+                                  assertEquals(BEST_EMPLOYEE_ID, employee.getDirectReports().get(0).getEmployeeId());
+                                  assertNull(employee.getDirectReports().get(0).getLastName());
+                                  assertNull(employee.getManagerIds());
+                              },
+                              () -> fail("Expected employee"));
+
+        response = restTemplate.getForEntity(employeeIdUrl + "?expand=directReports,managers", Employee.class, DIRECT_ONLY_MGR);
+        starr = validateResponse(HttpStatus.OK, response);
+        starr.ifPresentOrElse(employee -> {
+                                  assertEquals(BEST_EMPLOYEE_ID, employee.getDirectReports().get(0).getEmployeeId());
+                                  assertEquals("Best", employee.getDirectReports().get(0).getLastName());
+                                  assertTrue(employee.getManagerIds().contains(LENNON_EMPLOYEE_ID));
+                              },
+                              () -> fail("Expected employee"));
+
+        response = restTemplate.getForEntity(employeeIdUrl + "?expand=compensation", Employee.class, DIRECT_ONLY_MGR);
+        validateResponse(HttpStatus.BAD_REQUEST, response);
+    }
+
+    @Test
+    public void testCreateAll() {
+        String employees = "[{\"firstName\": \"Pete\", \"lastName\": \"Best\"},"
+                           + " {\"employeeId\": \"" + LENNON_EMPLOYEE_ID + "\", \"firstName\": \"John\"},"
+                           + " {\"firstName\": \"Stuart\", \"directReports\": 5},"
+                           + " {\"employeeId\": \"bulk-sutcliffe\", \"firstName\": \"Stuart\"}]";
+        BulkResult[] results = postBulk(MediaType.APPLICATION_JSON, employees);
+
+        assertEquals(4, results.length);
+        assertEquals(BulkResult.Status.CREATED, results[0].status());
+        assertNotNull(results[0].employeeId());
+        // Already taken
+        assertEquals(BulkResult.Status.FAILED, results[1].status());
+        assertEquals(LENNON_EMPLOYEE_ID, results[1].employeeId());
+        assertNotNull(results[1].error());
+        // Not an Employee
+        assertEquals(BulkResult.Status.FAILED, results[2].status());
+        assertEquals(BulkResult.Status.CREATED, results[3].status());
+        assertEquals("bulk-sutcliffe", results[3].employeeId());
+
+        Employee createdEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, results[0].employeeId()).getBody();
+        assertEquals("Pete", createdEmployee.getFirstName());
+        assertEquals("John", restTemplate.getForEntity(employeeIdUrl, Employee.class, LENNON_EMPLOYEE_ID).getBody().getFirstName());
+        assertEquals("Lennon", restTemplate.getForEntity(employeeIdUrl, Employee.class, LENNON_EMPLOYEE_ID).getBody().getLastName());
+    }
+
+    @Test
+    public void testCreateAll_ndjson() {
+        String employees = "{\"employeeId\": \"bulk-harrison\", \"firstName\": \"George\"}\n"
+                           + "{\"employeeId\": \"bulk-epstein\", \"firstName\": \"Brian\", \"directReports\": [{\"employeeId\": \"bulk-harrison\"}]}\n"
+                           + "{\"employeeId\": \"bulk-martin\", \"firstName\": ";
+        BulkResult[] results = postBulk(MediaType.APPLICATION_NDJSON, employees);
+
+        assertEquals(3, results.length);
+        assertEquals(BulkResult.Status.CREATED, results[0].status());
+        assertEquals(BulkResult.Status.CREATED, results[1].status());
+        // Truncated
+        assertEquals(BulkResult.Status.FAILED, results[2].status());
+
+        ResponseEntity<ReportingStructure> response = restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, "bulk-epstein");
+        validateResponse(HttpStatus.OK, response).ifPresentOrElse(rs -> validate(rs, "bulk-epstein", 1),
+                                                                  () -> fail("Expected ReportingStructure record"));
+    }
+
+    @Test
+    public void testReadAll() {
+        String multiGetUrl = employeeUrl + "/_mget";
+        List<String> ids = Arrays.asList(STARR_EMPLOYEE_ID, "unknown", LENNON_EMPLOYEE_ID, STARR_EMPLOYEE_ID);
+
+        ResponseEntity<MultiGetResult[]> response = restTemplate.postForEntity(multiGetUrl, ids, MultiGetResult[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        MultiGetResult[] results = response.getBody();
+        assertEquals(4, results.length);
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(ids.get(i), results[i].employeeId());
+        }
+        assertTrue(results[0].found());
+        assertEquals("Starr", results[0].employee().getLastName());
+        assertFalse(results[1].found());
+        assertNull(results[1].employee());
+        assertEquals("Lennon", results[2].employee().getLastName());
+        assertTrue(results[3].found());
+
+        List<String> tooMany = Collections.nCopies(1001, LENNON_EMPLOYEE_ID);
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity(multiGetUrl, tooMany, String.class).getStatusCode());
+    }
+
+    private BulkResult[] postBulk(MediaType contentType, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+
+        ResponseEntity<BulkResult[]> response = restTemplate.postForEntity(bulkUrl, new HttpEntity<>(body, headers), BulkResult[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+
     /**
      * Tests the implementation of the getReportingStructure() method.
      *
@@ -126,6 +241,48 @@ public class EmployeeControllerTest {
         assertTrue(reportingStructure.isEmpty());
     }
 
+    /**
+     * Note that the tests rely on the data loaded from employee_database.json so changes to that file have the potential
+     * to break these tests.
+     */
+    @Test
+    public void testGetReportingTree() {
+        ResponseEntity<Employee> response = restTemplate.getForEntity(reportingTreeUrl, Employee.class, MULTI_LEVEL_MGR);
+        Optional<Employee> tree = validateResponse(HttpStatus.OK, response);
+        tree.ifPresentOrElse(lennon -> {
+                                 assertEquals("Lennon", lennon.getLastName());
+                                 assertEquals(2, lennon.getDirectReports().size());
+
+                                 Employee starr = lennon.getDirectReports().get(1);
+                                 assertEquals(STARR_EMPLOYEE_ID, starr.getEmployeeId());
+                                 assertEquals("Starr", starr.getLastName());
+                                 assertEquals(2, starr.getDirectReports().size());
+                                 assertEquals("Best", starr.getDirectReports().get(0).getLastName());
+                             },
+                             () -> fail("Expected reporting tree"));
+
+        /*
+         * Limit the depth and the fields
+         */
+        response = restTemplate.getForEntity(reportingTreeUrl + "?depth=1&fields=lastName,position", Employee.class, MULTI_LEVEL_MGR);
+        tree = validateResponse(HttpStatus.OK, response);
+        tree.ifPresentOrElse(lennon -> {
+                                 assertNull(lennon.getFirstName());
+                                 assertEquals("Development Manager", lennon.getPosition());
+
+                                 Employee starr = lennon.getDirectReports().get(1);
+                                 assertEquals("Starr", starr.getLastName());
+                                 assertNull(starr.getDirectReports());
+                             },
+                             () -> fail("Expected reporting tree"));
+
+        response = restTemplate.getForEntity(reportingTreeUrl + "?fields=salary", Employee.class, MULTI_LEVEL_MGR);
+        validateResponse(HttpStatus.BAD_REQUEST, response);
+
+        response = restTemplate.getForEntity(reportingTreeUrl, Employee.class, "123");
+        validateResponse(HttpStatus.NOT_FOUND, response);
+    }
+
     /**
      * Tests the implementation of the getCompensation() method.
      *
@@ -158,6 +315,40 @@ public class EmployeeControllerTest {
         assertTrue(compensation.isEmpty());
     }
 
+    @Test
+    public void testGetCompensation_asOf() {
+        String asOfUrl = compensationUrl + "?asOf={asOf}";
+
+        /*
+         * Make sure the record in effect on the date is returned, including on the day it takes effect
+         */
+        ResponseEntity<Compensation> response = restTemplate.getForEntity(asOfUrl, Compensation.class, BEST_EMPLOYEE_ID, "1965-03-08");
+        Optional<Compensation> compensation = validateResponse(HttpStatus.OK, response);
+        compensation.ifPresentOrElse(comp -> validate(comp, BEST_EMPLOYEE_ID, 10000.0, LocalDate.of(1965, Month.MARCH, 8)),
+                                     () -> fail("Expected Compensation record"));
+
+        response = restTemplate.getForEntity(asOfUrl, Compensation.class, BEST_EMPLOYEE_ID, "1966-12-04");
+        compensation = validateResponse(HttpStatus.OK, response);
+        compensation.ifPresentOrElse(comp -> validate(comp, BEST_EMPLOYEE_ID, 10000.0, LocalDate.of(1965, Month.MARCH, 8)),
+                                     () -> fail("Expected Compensation record"));
+
+        response = restTemplate.getForEntity(asOfUrl, Compensation.class, BEST_EMPLOYEE_ID, "2000-01-01");
+        compensation = validateResponse(HttpStatus.OK, response);
+        compensation.ifPresentOrElse(comp -> validate(comp, BEST_EMPLOYEE_ID, 12000.0, LocalDate.of(1966, Month.DECEMBER, 5)),
+                                     () -> fail("Expected Compensation record"));
+
+        /*
+         * Make sure the correct response is received before the employee was paid and for an invalid date
+         */
+        response = restTemplate.getForEntity(asOfUrl, Compensation.class, BEST_EMPLOYEE_ID, "1965-03-07");
+        compensation = validateResponse(HttpStatus.NOT_FOUND, response);
+        assertTrue(compensation.isEmpty());
+
+        response = restTemplate.getForEntity(asOfUrl, Compensation.class, BEST_EMPLOYEE_ID, "03/08/1965");
+        compensation = validateResponse(HttpStatus.BAD_REQUEST, response);
+        assertTrue(compensation.isEmpty());
+    }
+
     @Test
     public void testGetCompensation_invalidEmployeeId() {
         ResponseEntity<Compensation> response = restTemplate.getForEntity(compensationUrl, Compensation.class, "123");
@@ -182,6 +373,26 @@ public class EmployeeControllerTest {
 
     }
 
+    @Test
+    public void testAddCompensation_noEffectiveDate() {
+        Employee employee = restTemplate.postForEntity(employeeUrl, new Employee(), Employee.class).getBody();
+        String updatedUrl = compensationUrl.replace("{id}", employee.getEmployeeId());
+        LocalDate hired = LocalDate.of(1960, Month.JANUARY, 1);
+
+        // Read the current compensation so it's cached
+        restTemplate.postForEntity(updatedUrl, new Compensation(null, null, 100.0, hired), Compensation.class);
+        validateResponse(HttpStatus.OK, restTemplate.getForEntity(updatedUrl, Compensation.class));
+
+        // A record without a date is saved, and is older than the current one
+        ResponseEntity<Compensation> response = restTemplate.postForEntity(updatedUrl, new Compensation(null, null, 50.0, null),
+                                                                           Compensation.class);
+        validateResponse(HttpStatus.OK, response).ifPresentOrElse(comp -> validate(comp, employee.getEmployeeId(), 50.0, null),
+                                                                  () -> fail("Expected Compensation record"));
+        validateResponse(HttpStatus.OK, restTemplate.getForEntity(updatedUrl, Compensation.class))
+                .ifPresentOrElse(comp -> validate(comp, employee.getEmployeeId(), 100.0, hired),
+                                 () -> fail("Expected Compensation record"));
+    }
+
     @Test
     public void testAddCompensation_invalidEmployeeId() {
         String updatedUrl = compensationUrl.replace("{id}", "123");
@@ -0,0 +1,67 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MongoPoolStatistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class MongoPoolControllerTest {
+    private String poolStatsUrl;
+    private String employeeUrl;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Before
+    public void setup() {
+        poolStatsUrl = "http://localhost:" + port + "/mongo/pool/stats";
+        employeeUrl = "http://localhost:" + port + "/employee";
+    }
+
+    @Test
+    public void testStats() {
+        MongoPoolStatistics before = getStats().get("blocking");
+
+        Employee employee = new Employee();
+        employee.setFirstName("Pete");
+        employee.setLastName("Best");
+        restTemplate.postForEntity(employeeUrl, employee, Employee.class);
+
+        MongoPoolStatistics after = getStats().get("blocking");
+        assertTrue(after.checkOuts() > before.checkOuts());
+        assertTrue(after.size() > 0);
+        assertEquals(0, after.checkedOut());
+        assertEquals(0, after.waitQueueSize());
+        assertTrue(after.maxWaitMillis() >= after.meanWaitMillis());
+
+        // The reactive client is only created for the reactive profile
+        assertFalse(getStats().containsKey("reactive"));
+    }
+
+    private Map<String, MongoPoolStatistics> getStats() {
+        ResponseEntity<Map<String, MongoPoolStatistics>> response = restTemplate.exchange(poolStatsUrl, HttpMethod.GET, null,
+                new ParameterizedTypeReference<Map<String, MongoPoolStatistics>>() {});
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+}
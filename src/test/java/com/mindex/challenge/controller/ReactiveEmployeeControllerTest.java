@@ -0,0 +1,114 @@
+package com.mindex.challenge.controller;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.ReportingStructure;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.Month;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTest {
+    private String employeeUrl;
+    private String employeeIdUrl;
+    private String reportingStructureUrl;
+    private String compensationUrl;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Before
+    public void setup() {
+        employeeUrl = "http://localhost:" + port + "/employee";
+        employeeIdUrl = "http://localhost:" + port + "/employee/{id}";
+        reportingStructureUrl = employeeIdUrl + "/reportingstructure";
+        compensationUrl = employeeIdUrl + "/compensation";
+    }
+
+    @Test
+    public void testCreateReadUpdate() {
+        assertTrue(applicationContext.containsBean("reactiveEmployeeController"));
+        assertFalse(applicationContext.containsBean("employeeController"));
+
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("John");
+        testEmployee.setLastName("Doe");
+        testEmployee.setDepartment("Engineering");
+        testEmployee.setPosition("Developer");
+
+        Employee createdEmployee = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody();
+        assertNotNull(createdEmployee.getEmployeeId());
+        assertEmployeeEquivalence(testEmployee, createdEmployee);
+
+        Employee readEmployee = restTemplate.getForEntity(employeeIdUrl, Employee.class, createdEmployee.getEmployeeId()).getBody();
+        assertEquals(createdEmployee.getEmployeeId(), readEmployee.getEmployeeId());
+        assertEmployeeEquivalence(createdEmployee, readEmployee);
+
+        readEmployee.setPosition("Development Manager");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Employee updatedEmployee = restTemplate.exchange(employeeIdUrl, HttpMethod.PUT,
+                new HttpEntity<>(readEmployee, headers), Employee.class, readEmployee.getEmployeeId()).getBody();
+        assertEmployeeEquivalence(readEmployee, updatedEmployee);
+
+        ResponseEntity<String> missing = restTemplate.getForEntity(employeeIdUrl, String.class, "unknown");
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+
+    @Test
+    public void testReportingStructure() {
+        ResponseEntity<ReportingStructure> response =
+                restTemplate.getForEntity(reportingStructureUrl, ReportingStructure.class, MULTI_LEVEL_MGR);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MULTI_LEVEL_MGR, response.getBody().employee().getEmployeeId());
+        assertEquals(4, response.getBody().numberOfReports());
+
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(reportingStructureUrl, String.class, "unknown").getStatusCode());
+    }
+
+    @Test
+    public void testCompensation() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Pete");
+        testEmployee.setLastName("Best");
+        String employeeId = restTemplate.postForEntity(employeeUrl, testEmployee, Employee.class).getBody().getEmployeeId();
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(compensationUrl, String.class, employeeId).getStatusCode());
+
+        Compensation compensation = new Compensation(null, null, 1000.0, LocalDate.of(1962, Month.JANUARY, 1));
+        ResponseEntity<Compensation> created =
+                restTemplate.postForEntity(compensationUrl, compensation, Compensation.class, employeeId);
+        assertEquals(HttpStatus.OK, created.getStatusCode());
+        assertNotNull(created.getBody().id());
+        assertEquals(employeeId, created.getBody().employeeId());
+
+        Compensation current = restTemplate.getForEntity(compensationUrl, Compensation.class, employeeId).getBody();
+        assertEquals(created.getBody().id(), current.id());
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.getForEntity(compensationUrl + "?asOf=1961-01-01", String.class,
+                employeeId).getStatusCode());
+    }
+}
@@ -0,0 +1,83 @@
+package com.mindex.challenge.dao.inprocess;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.BulkResult;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("inprocess")
+public class InProcessRepositoryTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testBootstrap() {
+        assertTrue(employeeRepository instanceof InProcessEmployeeRepository);
+        assertTrue(compensationRepository instanceof InProcessCompensationRepository);
+
+        Employee lennon = employeeService.read(MULTI_LEVEL_MGR);
+        assertEquals("Lennon", lennon.getLastName());
+        assertEquals(4, employeeService.getReportingStructure(lennon).numberOfReports());
+
+        Employee best = employeeService.read(BEST_EMPLOYEE_ID);
+        assertEquals(LocalDate.of(1966, Month.DECEMBER, 5), employeeService.getCompensation(best).get().effectiveDate());
+        assertEquals(2, compensationRepository.findByEmployeeIdOrderByEffectiveDateDesc(BEST_EMPLOYEE_ID).size());
+    }
+
+    @Test
+    public void testWrites() throws Exception {
+        Employee employee = new Employee();
+        employee.setFirstName("Stuart");
+        employee = employeeService.create(employee);
+
+        // Stored documents can't be changed without saving them
+        Employee stored = employeeRepository.findByEmployeeId(employee.getEmployeeId());
+        stored.setLastName("Sutcliffe");
+        assertNull(employeeRepository.findByEmployeeId(employee.getEmployeeId()).getLastName());
+        employeeService.update(stored);
+        assertEquals("Sutcliffe", employeeService.read(employee.getEmployeeId()).getLastName());
+        assertTrue(employeeRepository.existsById(employee.getEmployeeId()));
+        assertEquals("Sutcliffe", employeeRepository.findById(employee.getEmployeeId()).map(Employee::getLastName).orElse(null));
+
+        employeeService.addCompensation(employee, 10.0, LocalDate.of(1960, Month.JANUARY, 1));
+        employeeService.addCompensation(employee, 5.0, LocalDate.of(1959, Month.JANUARY, 1));
+        assertEquals(10.0, compensationRepository.findFirstByEmployeeIdOrderByEffectiveDateDesc(employee.getEmployeeId())
+                                                 .map(Compensation::salary).orElse(null), 0.0);
+
+        String employees = "{\"employeeId\": \"" + employee.getEmployeeId() + "\"}{\"firstName\": \"Pete\"}";
+        try (MappingIterator<Employee> iterator = objectMapper.readerFor(Employee.class).readValues(employees)) {
+            List<BulkResult> results = employeeService.createAll(iterator);
+            assertEquals(BulkResult.Status.FAILED, results.get(0).status());
+            assertEquals(BulkResult.Status.CREATED, results.get(1).status());
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.ChallengeApplication;
+import com.mindex.challenge.data.Employee;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Drives a mixed read/write load against the employee API of a locally started application and reports the throughput
+ * and latency percentiles of every kind of request.  Runs offline: the application keeps its data in the embedded
+ * Mongo server and is loaded at startup with an org chart from {@link OrgChartGenerator}.  Not run as part of the
+ * test suite; run with {@code gradlew loadTest -PloadTestArgs="--employees=100000 --concurrency=200"} or the main
+ * method with {@code java -cp <test classpath> com.mindex.challenge.loadtest.LoadDriver [options]}.
+ *
+ * Besides the {@link OrgChartGenerator.Options org chart options} it takes:
+ * <ul>
+ *     <li>--concurrency: the most requests in flight (default 64)</li>
+ *     <li>--rate: requests per second to send at; 0 (the default) sends the next request as soon as one completes</li>
+ *     <li>--warmup and --duration: seconds to warm up for (default 10) and to measure for (default 30)</li>
+ *     <li>--mix: the weights of the operations, e.g. READ:80,UPDATE:20 (default the weights of {@link Operation})</li>
+ * </ul>
+ * Every argument is also passed on to the application, e.g. --challenge.mongo.backend=H2 to make the database calls
+ * slower.
+ *
+ * With a rate the latency of a request is counted from when it was due to be sent rather than when it was sent, so
+ * time spent waiting on a saturated server isn't left out of the percentiles.
+ */
+public class LoadDriver {
+
+    /**
+     * The requests sent, each to a randomly chosen employee of the org chart.
+     */
+    enum Operation {
+        READ(40),
+        REPORTING_STRUCTURE(20),
+        COMPENSATION(15),
+        COMPENSATION_AS_OF(5),
+        UPDATE(10),
+        CREATE(5),
+        ADD_COMPENSATION(5);
+
+        private final int defaultWeight;
+
+        Operation(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    private final OrgChartGenerator orgChart;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final String baseUrl;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    LoadDriver(OrgChartGenerator orgChart, int port, Map<Operation, Integer> mix) {
+        this.orgChart = orgChart;
+        this.client = HttpClient.newBuilder()
+                                .version(HttpClient.Version.HTTP_1_1)
+                                .connectTimeout(Duration.ofSeconds(10))
+                                .build();
+        this.baseUrl = "http://localhost:" + port;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimpleCommandLinePropertySource arguments = new SimpleCommandLinePropertySource(args);
+        OrgChartGenerator.Options options = OrgChartGenerator.Options.from(arguments);
+        int concurrency = Integer.parseInt(get(arguments, "concurrency", "64"));
+        int rate = Integer.parseInt(get(arguments, "rate", "0"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(get(arguments, "warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(get(arguments, "duration", "30")));
+        Map<Operation, Integer> mix = parseMix(arguments.getProperty("mix"));
+
+        OrgChartGenerator orgChart = new OrgChartGenerator(options);
+        Path directory = Files.createTempDirectory("org-chart");
+        orgChart.write(directory);
+
+        // Passed as arguments so they take precedence over application.properties
+        String[] applicationArgs = Stream.concat(Stream.of("--server.port=0",
+                                                           "--logging.level.com.mindex=INFO",
+                                                           "--challenge.bootstrap.employee-file=" + directory.resolve("employee_database.json"),
+                                                           "--challenge.bootstrap.compensation-file=" + directory.resolve("compensation_database.json")),
+                                                 Arrays.stream(args))
+                                         .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ChallengeApplication.class).run(applicationArgs);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadDriver driver = new LoadDriver(orgChart, port, mix);
+
+            System.out.printf("java=%s processors=%d employees=%d span=%d depth=%d compensation-history=%d%n",
+                    Runtime.version(), Runtime.getRuntime().availableProcessors(), options.employees(),
+                    options.span(), options.depth(), options.compensationHistory());
+            System.out.printf("concurrency=%d rate=%s mix=%s%n", concurrency, (rate > 0) ? rate + "/s" : "closed loop", mix);
+
+            driver.run(concurrency, rate, warmup);
+            Results results = driver.run(concurrency, rate, duration);
+            results.print(duration);
+        } finally {
+            context.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                files.forEach(LoadDriver::delete);
+            }
+            delete(directory);
+        }
+    }
+
+    private static String get(SimpleCommandLinePropertySource arguments, String name, String defaultValue) {
+        String value = arguments.getProperty(name);
+        return (value != null) ? value : defaultValue;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        if (mix == null || mix.isBlank()) {
+            for (Operation operation : Operation.values()) {
+                weights.put(operation, operation.defaultWeight);
+            }
+            return weights;
+        }
+
+        for (String weight : mix.split(",")) {
+            String[] parts = weight.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix [" + mix + "]; expected e.g. READ:80,UPDATE:20");
+            }
+            weights.put(Operation.valueOf(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Sends requests for the duration, keeping at most the given number in flight.
+     *
+     * @param rate requests per second; 0 to send the next request as soon as one completes
+     */
+    Results run(int concurrency, int rate, Duration duration) throws InterruptedException {
+        Results results = new Results();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long interval = (rate > 0) ? 1_000_000_000L / rate : 0;
+
+        for (long sent = 0; ; sent++) {
+            long due = start + sent * interval;
+            if (rate > 0) {
+                LockSupport.parkNanos(due - System.nanoTime());
+            }
+            if (System.nanoTime() >= end) {
+                break;
+            }
+
+            inFlight.acquire();
+            Operation operation = nextOperation();
+            long sentAt = (rate > 0) ? due : System.nanoTime();
+            client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                  .whenComplete((response, ex) -> {
+                      long completedAt = System.nanoTime();
+                      if (completedAt < end) {
+                          results.record(operation, ex == null && response.statusCode() / 100 == 2, completedAt - sentAt);
+                      }
+                      inFlight.release();
+                  });
+        }
+
+        // Let the requests still in flight finish so they don't spill into the next run
+        inFlight.acquire(concurrency);
+        return results;
+    }
+
+    private Operation nextOperation() {
+        int choice = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; ; i++) {
+            if (choice < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+    }
+
+    HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int employee = random.nextInt(orgChart.size());
+        String employeeUrl = baseUrl + "/employee/" + orgChart.employeeId(employee);
+
+        return switch (operation) {
+            case READ -> get(employeeUrl);
+            case REPORTING_STRUCTURE -> get(employeeUrl + "/reportingstructure");
+            case COMPENSATION -> get(employeeUrl + "/compensation");
+            case COMPENSATION_AS_OF -> get(employeeUrl + "/compensation?asOf="
+                    + orgChart.effectiveDate(employee, 0).plusDays(random.nextInt(365)));
+            case UPDATE -> {
+                Employee updated = orgChart.employee(employee);
+                updated.setPosition(updated.getPosition() + " (updated)");
+                yield send("PUT", employeeUrl, updated);
+            }
+            case CREATE -> {
+                Employee created = orgChart.employee(employee);
+                created.setEmployeeId(null);
+                created.setDirectReports(null);
+                yield send("POST", baseUrl + "/employee", created);
+            }
+            case ADD_COMPENSATION -> send("POST", employeeUrl + "/compensation",
+                    Map.of("salary", orgChart.salary(employee, random.nextInt(50)),
+                           "effectiveDate", orgChart.effectiveDate(employee, 0).plusDays(random.nextInt(10_000)).toString()));
+        };
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                          .timeout(Duration.ofSeconds(30))
+                          .build();
+    }
+
+    private HttpRequest send(String method, String url, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(url))
+                              .timeout(Duration.ofSeconds(30))
+                              .header("Content-Type", "application/json")
+                              .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                              .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The latencies and errors of one run, by operation.
+     */
+    static class Results {
+        private final Map<Operation, Queue<Long>> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+        Results() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new ConcurrentLinkedQueue<>());
+                errors.put(operation, new AtomicLong());
+            }
+        }
+
+        void record(Operation operation, boolean succeeded, long latency) {
+            if (succeeded) {
+                latencies.get(operation).add(latency);
+            } else {
+                errors.get(operation).incrementAndGet();
+            }
+        }
+
+        long requests(Operation operation) {
+            return latencies.get(operation).size();
+        }
+
+        long errors(Operation operation) {
+            return errors.get(operation).get();
+        }
+
+        void print(Duration duration) {
+            System.out.printf("%-20s %9s %10s %9s %9s %9s %9s %9s %7s   (milliseconds)%n",
+                    "operation", "requests", "requests/s", "p50", "p90", "p99", "p99.9", "max", "errors");
+
+            long totalErrors = 0;
+            for (Operation operation : Operation.values()) {
+                if (requests(operation) > 0 || errors(operation) > 0) {
+                    print(operation.name(), latencies.get(operation).stream(), errors(operation), duration);
+                    totalErrors += errors(operation);
+                }
+            }
+            print("TOTAL", latencies.values().stream().flatMap(Queue::stream), totalErrors, duration);
+        }
+
+        private static void print(String label, Stream<Long> latencies, long errors, Duration duration) {
+            long[] sorted = latencies.mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-20s %9d %10.0f %9.1f %9.1f %9.1f %9.1f %9.1f %7d%n",
+                    label, sorted.length, sorted.length / (double) duration.toSeconds(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), percentile(sorted, 1.0), errors);
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))] / 1e6;
+        }
+    }
+}
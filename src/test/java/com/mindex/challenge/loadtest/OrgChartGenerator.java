@@ -0,0 +1,275 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.mindex.challenge.data.Employee;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates synthetic org charts in the format of the bundled employee_database.json and compensation_database.json,
+ * so they can be loaded at startup with challenge.bootstrap.employee-file and challenge.bootstrap.compensation-file.
+ * Run the main method with
+ * {@code java -cp <test classpath> com.mindex.challenge.loadtest.OrgChartGenerator --employees=100000 --output=data},
+ * see {@link Options#from} for the other options.
+ *
+ * The org chart has a single employee at the top.  Employees are assigned to managers level by level, each manager
+ * getting a random number of direct reports around the span of control; the managers on the last level allowed by the
+ * depth take on everybody still left.  The same options and seed always generate the same org chart, with the same
+ * employee IDs.
+ */
+public class OrgChartGenerator {
+    private static final String[] FIRST_NAMES = { "John", "Paul", "George", "Ringo", "Pete", "Stuart", "Yoko", "Linda",
+                                                  "Cynthia", "Pattie", "Maureen", "Astrid", "Brian", "Neil", "Mal" };
+    private static final String[] LAST_NAMES = { "Lennon", "McCartney", "Harrison", "Starr", "Best", "Sutcliffe",
+                                                 "Ono", "Eastman", "Powell", "Boyd", "Cox", "Kirchherr", "Epstein",
+                                                 "Aspinall", "Evans", "Martin" };
+    private static final String[] DEPARTMENTS = { "Engineering", "Sales", "Marketing", "Finance", "Operations",
+                                                  "Human Resources", "Legal", "Support" };
+    private static final String[] MANAGEMENT_POSITIONS = { "Chief Executive Officer", "Vice President", "Director",
+                                                           "Senior Manager", "Manager" };
+    private static final String[] POSITIONS = { "Developer I", "Developer II", "Developer III", "Analyst", "Designer",
+                                                "Tester", "Architect" };
+
+    /** The date of the most recent compensation record of every employee */
+    private static final LocalDate LATEST_EFFECTIVE_DATE = LocalDate.of(2024, 1, 1);
+
+    /**
+     * What to generate.
+     *
+     * @param employees the number of employees
+     * @param span the average number of direct reports of a manager
+     * @param depth the most reporting levels below the top of the org chart
+     * @param compensationHistory the number of compensation records of every employee, one per year
+     * @param seed the seed of the random choices
+     */
+    public record Options(int employees, int span, int depth, int compensationHistory, long seed) {
+        public Options {
+            if (employees < 1 || span < 1 || depth < 0 || compensationHistory < 0) {
+                throw new IllegalArgumentException("Invalid org chart options " + this);
+            }
+            if (employees > 1 && depth == 0) {
+                throw new IllegalArgumentException("An org chart of more than one employee needs a depth of at least 1");
+            }
+        }
+
+        /**
+         * Reads the options from --employees (default 10,000), --span (8), --depth (20), --compensation-history (5)
+         * and --seed (42) arguments.
+         */
+        public static Options from(SimpleCommandLinePropertySource arguments) {
+            return new Options(Integer.parseInt(get(arguments, "employees", "10000")),
+                               Integer.parseInt(get(arguments, "span", "8")),
+                               Integer.parseInt(get(arguments, "depth", "20")),
+                               Integer.parseInt(get(arguments, "compensation-history", "5")),
+                               Long.parseLong(get(arguments, "seed", "42")));
+        }
+
+        private static String get(SimpleCommandLinePropertySource arguments, String name, String defaultValue) {
+            String value = arguments.getProperty(name);
+            return (value != null) ? value : defaultValue;
+        }
+    }
+
+    private final Options options;
+
+    /** Employees are numbered in level order, so the direct reports of an employee are numbered consecutively */
+    private final int[] firstReport;
+    private final int[] reportCount;
+    private final int[] manager;
+    private final int[] level;
+
+    public OrgChartGenerator(Options options) {
+        this.options = options;
+        int employees = options.employees();
+        firstReport = new int[employees];
+        reportCount = new int[employees];
+        manager = new int[employees];
+        level = new int[employees];
+        manager[0] = -1;
+
+        Random random = new Random(options.seed());
+        int next = 1;
+        // The end of each level once all of its employees have been assigned a manager
+        int levelEnd = 1;
+        for (int employee = 0; employee < employees && next < employees; employee++) {
+            if (employee == levelEnd) {
+                levelEnd = next;
+            }
+            if (level[employee] == options.depth()) {
+                break;
+            }
+
+            int reports = (level[employee] == options.depth() - 1)
+                    ? divideRemaining(employees - next, levelEnd - employee)
+                    : 1 + random.nextInt(2 * options.span() - 1);
+            reports = Math.min(reports, employees - next);
+
+            firstReport[employee] = next;
+            reportCount[employee] = reports;
+            for (int report = next; report < next + reports; report++) {
+                manager[report] = employee;
+                level[report] = level[employee] + 1;
+            }
+            next += reports;
+        }
+    }
+
+    private static int divideRemaining(int remaining, int managers) {
+        return (remaining + managers - 1) / managers;
+    }
+
+    public int size() {
+        return options.employees();
+    }
+
+    /**
+     * The ID of the employee with the given number; employee 0 is at the top of the org chart.
+     */
+    public String employeeId(int employee) {
+        return UUID.nameUUIDFromBytes((options.seed() + "/" + employee).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * @return the number of the employee's manager; -1 for the top of the org chart
+     */
+    public int manager(int employee) {
+        return manager[employee];
+    }
+
+    public int level(int employee) {
+        return level[employee];
+    }
+
+    public int reportCount(int employee) {
+        return reportCount[employee];
+    }
+
+    /**
+     * Builds the employee as it's stored, with direct reports that hold just their employeeId.
+     */
+    public Employee employee(int employee) {
+        Employee result = new Employee();
+        result.setEmployeeId(employeeId(employee));
+        result.setFirstName(FIRST_NAMES[employee % FIRST_NAMES.length]);
+        result.setLastName(LAST_NAMES[(employee / FIRST_NAMES.length) % LAST_NAMES.length]);
+        result.setPosition(position(employee));
+        result.setDepartment(DEPARTMENTS[department(employee) % DEPARTMENTS.length]);
+
+        if (reportCount[employee] > 0) {
+            List<Employee> directReports = new ArrayList<>(reportCount[employee]);
+            for (int report = firstReport[employee]; report < firstReport[employee] + reportCount[employee]; report++) {
+                Employee directReport = new Employee();
+                directReport.setEmployeeId(employeeId(report));
+                directReports.add(directReport);
+            }
+            result.setDirectReports(directReports);
+        }
+        return result;
+    }
+
+    private String position(int employee) {
+        if (reportCount[employee] > 0) {
+            return MANAGEMENT_POSITIONS[Math.min(level[employee], MANAGEMENT_POSITIONS.length - 1)];
+        }
+        return POSITIONS[employee % POSITIONS.length];
+    }
+
+    /**
+     * @return the number of the employee on the first level below the top that the employee works under
+     */
+    private int department(int employee) {
+        while (level[employee] > 1) {
+            employee = manager[employee];
+        }
+        return employee;
+    }
+
+    /**
+     * The salary of an employee after the given number of yearly raises, which depends on how senior the employee is.
+     */
+    public double salary(int employee, int raises) {
+        double starting = 200_000.0 / (1 + Math.min(level[employee], 5)) + 40_000.0;
+        return Math.round(starting * Math.pow(1.03, raises));
+    }
+
+    /**
+     * @return the date the employee's nth compensation record, counting from 0, takes effect
+     */
+    public LocalDate effectiveDate(int employee, int record) {
+        return LATEST_EFFECTIVE_DATE.minusYears(options.compensationHistory() - 1L - record)
+                                    .minusDays(employee % 365);
+    }
+
+    /**
+     * Writes employee_database.json and compensation_database.json to the directory, streaming the records so the
+     * org chart is never held in memory as employees.
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        JsonFactory jsonFactory = new JsonFactory();
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                directory.resolve("employee_database.json").toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int employee = 0; employee < size(); employee++) {
+                Employee written = employee(employee);
+                generator.writeStartObject();
+                generator.writeStringField("employeeId", written.getEmployeeId());
+                generator.writeStringField("firstName", written.getFirstName());
+                generator.writeStringField("lastName", written.getLastName());
+                generator.writeStringField("position", written.getPosition());
+                generator.writeStringField("department", written.getDepartment());
+                if (written.getDirectReports() != null) {
+                    generator.writeArrayFieldStart("directReports");
+                    for (Employee directReport : written.getDirectReports()) {
+                        generator.writeStartObject();
+                        generator.writeStringField("employeeId", directReport.getEmployeeId());
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                directory.resolve("compensation_database.json").toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (int employee = 0; employee < size(); employee++) {
+                for (int record = 0; record < options.compensationHistory(); record++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("id", UUID.nameUUIDFromBytes(
+                            (options.seed() + "/" + employee + "/" + record).getBytes(StandardCharsets.UTF_8)).toString());
+                    generator.writeStringField("employeeId", employeeId(employee));
+                    generator.writeNumberField("salary", salary(employee, record));
+                    generator.writeStringField("effectiveDate", effectiveDate(employee, record).toString());
+                    generator.writeEndObject();
+                }
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        SimpleCommandLinePropertySource arguments = new SimpleCommandLinePropertySource(args);
+        Options options = Options.from(arguments);
+        Path directory = Path.of((arguments.getProperty("output") != null) ? arguments.getProperty("output") : ".");
+
+        OrgChartGenerator generator = new OrgChartGenerator(options);
+        generator.write(directory);
+        System.out.printf("Wrote %d employees with %d compensation records each to %s%n",
+                options.employees(), options.compensationHistory(), directory.toAbsolutePath());
+    }
+}
@@ -0,0 +1,89 @@
+package com.mindex.challenge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class OrgChartGeneratorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testOrgChart() {
+        OrgChartGenerator orgChart = new OrgChartGenerator(new OrgChartGenerator.Options(10_000, 4, 5, 0, 1));
+
+        int reports = 0;
+        for (int employee = 0; employee < orgChart.size(); employee++) {
+            reports += orgChart.reportCount(employee);
+            assertTrue(orgChart.level(employee) <= 5);
+            if (employee > 0) {
+                assertEquals(orgChart.level(orgChart.manager(employee)) + 1, orgChart.level(employee));
+            }
+        }
+        // Everybody but the top of the org chart reports to exactly one manager
+        assertEquals(-1, orgChart.manager(0));
+        assertEquals(orgChart.size() - 1, reports);
+
+        // The same options generate the same org chart
+        OrgChartGenerator again = new OrgChartGenerator(new OrgChartGenerator.Options(10_000, 4, 5, 0, 1));
+        assertEquals(orgChart.employeeId(1234), again.employeeId(1234));
+        assertEquals(orgChart.reportCount(12), again.reportCount(12));
+    }
+
+    @Test
+    public void testOrgChart_singleEmployee() {
+        OrgChartGenerator orgChart = new OrgChartGenerator(new OrgChartGenerator.Options(1, 8, 0, 0, 1));
+        assertEquals(0, orgChart.reportCount(0));
+        assertNull(orgChart.employee(0).getDirectReports());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOptions_invalidDepth() {
+        new OrgChartGenerator.Options(2, 8, 0, 0, 1);
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        OrgChartGenerator orgChart = new OrgChartGenerator(new OrgChartGenerator.Options(500, 8, 20, 3, 42));
+        Path directory = temporaryFolder.getRoot().toPath();
+        orgChart.write(directory);
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Employee> employees = Arrays.asList(objectMapper.readValue(
+                directory.resolve("employee_database.json").toFile(), Employee[].class));
+        List<Compensation> compensations = Arrays.asList(objectMapper.readValue(
+                directory.resolve("compensation_database.json").toFile(), Compensation[].class));
+
+        assertEquals(500, employees.size());
+        assertEquals(1_500, compensations.size());
+
+        Set<String> employeeIds = new HashSet<>();
+        employees.forEach(employee -> employeeIds.add(employee.getEmployeeId()));
+        assertEquals(500, employeeIds.size());
+        for (Employee employee : employees) {
+            if (employee.getDirectReports() != null) {
+                employee.getDirectReports().forEach(report -> assertTrue(employeeIds.contains(report.getEmployeeId())));
+            }
+        }
+
+        // Each employee's history ends with the highest salary
+        Compensation first = compensations.get(0);
+        Compensation latest = compensations.get(2);
+        assertEquals(first.employeeId(), latest.employeeId());
+        assertTrue(latest.effectiveDate().isAfter(first.effectiveDate()));
+        assertTrue(latest.salary() > first.salary());
+    }
+}
@@ -0,0 +1,133 @@
+package com.mindex.challenge.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mindex.challenge.config.CacheConfig;
+import com.mindex.challenge.data.Compensation;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class CompensationHistoryIndexTest {
+
+    private CompensationHistoryIndex compensationHistoryIndex;
+
+    private List<String> loadedEmployeeIds;
+
+    private Function<String, List<Compensation>> historyLoader;
+
+    @Before
+    public void setup() {
+        compensationHistoryIndex = new CompensationHistoryIndex();
+        ReflectionTestUtils.setField(compensationHistoryIndex, "histories",
+                                     new CacheConfig().compensationHistoryCache(100));
+        loadedEmployeeIds = new ArrayList<>();
+        historyLoader = employeeId -> {
+            loadedEmployeeIds.add(employeeId);
+            return Arrays.asList(compensation("raise", 12000.0, LocalDate.of(1966, Month.DECEMBER, 5)),
+                                 compensation("hire", 10000.0, LocalDate.of(1965, Month.MARCH, 8)));
+        };
+    }
+
+    @Test
+    public void testFind() {
+        assertNull(find(LocalDate.of(1965, Month.MARCH, 7)));
+        assertEquals("hire", find(LocalDate.of(1965, Month.MARCH, 8)).id());
+        assertEquals("hire", find(LocalDate.of(1966, Month.DECEMBER, 4)).id());
+        assertEquals("raise", find(LocalDate.of(1966, Month.DECEMBER, 5)).id());
+        assertEquals("raise", find(LocalDate.MAX).id());
+
+        Compensation compensation = find(LocalDate.of(1966, Month.JANUARY, 1));
+        assertEquals("best", compensation.employeeId());
+        assertEquals(10000.0, compensation.salary(), 0.0);
+        assertEquals(LocalDate.of(1965, Month.MARCH, 8), compensation.effectiveDate());
+
+        // The history is only loaded once
+        assertEquals(Collections.singletonList("best"), loadedEmployeeIds);
+    }
+
+    @Test
+    public void testAdd() {
+        // Nothing to add to until the history is loaded
+        compensationHistoryIndex.add(compensation("bonus", 15000.0, LocalDate.of(1967, Month.JUNE, 1)));
+        assertFalse(compensationHistoryIndex.contains("best"));
+
+        find(LocalDate.MAX);
+        compensationHistoryIndex.add(compensation("bonus", 15000.0, LocalDate.of(1967, Month.JUNE, 1)));
+        compensationHistoryIndex.add(compensation("backdated", 11000.0, LocalDate.of(1966, Month.JANUARY, 1)));
+        compensationHistoryIndex.add(compensation("correction", 12500.0, LocalDate.of(1966, Month.DECEMBER, 5)));
+
+        assertEquals("hire", find(LocalDate.of(1965, Month.DECEMBER, 31)).id());
+        assertEquals("backdated", find(LocalDate.of(1966, Month.JANUARY, 1)).id());
+        assertEquals("correction", find(LocalDate.of(1966, Month.DECEMBER, 5)).id());
+        assertEquals("bonus", find(LocalDate.MAX).id());
+    }
+
+    @Test
+    public void testFind_noHistory() {
+        assertTrue(compensationHistoryIndex.find("lennon", LocalDate.MAX, employeeId -> Collections.emptyList()).isEmpty());
+
+        compensationHistoryIndex.add(new Compensation("hire", "lennon", null, null));
+        Compensation compensation = compensationHistoryIndex.find("lennon", LocalDate.MIN, historyLoader).get();
+        assertEquals("hire", compensation.id());
+        assertNull(compensation.salary());
+        assertNull(compensation.effectiveDate());
+    }
+
+    @Test
+    public void testFind_evicted() {
+        // Room for one history
+        Cache<String, CompensationHistoryIndex.History> histories = Caffeine.newBuilder()
+                .maximumSize(1)
+                .executor(Runnable::run)
+                .build();
+        ReflectionTestUtils.setField(compensationHistoryIndex, "histories", histories);
+
+        compensationHistoryIndex.find("best", LocalDate.MAX, historyLoader);
+        compensationHistoryIndex.find("starr", LocalDate.MAX, historyLoader);
+        histories.cleanUp();
+        assertEquals(1, histories.estimatedSize());
+
+        // The evicted history is loaded again
+        String evicted = compensationHistoryIndex.contains("best") ? "starr" : "best";
+        assertEquals("raise", compensationHistoryIndex.find(evicted, LocalDate.MAX, historyLoader).get().id());
+        assertEquals(Arrays.asList("best", "starr", evicted), loadedEmployeeIds);
+    }
+
+    @Test
+    public void testFind_longHistory() {
+        // Far more records than there is room for histories
+        ReflectionTestUtils.setField(compensationHistoryIndex, "histories", new CacheConfig().compensationHistoryCache(10));
+        List<Compensation> compensations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            compensations.add(compensation("c" + i, 10000.0 + i, LocalDate.of(1965, Month.MARCH, 8).plusDays(i)));
+        }
+        historyLoader = employeeId -> {
+            loadedEmployeeIds.add(employeeId);
+            return compensations;
+        };
+
+        assertEquals("c0", find(LocalDate.of(1965, Month.MARCH, 8)).id());
+        assertEquals("c999", find(LocalDate.MAX).id());
+        assertTrue(compensationHistoryIndex.contains("best"));
+        assertEquals(Collections.singletonList("best"), loadedEmployeeIds);
+    }
+
+    private Compensation find(LocalDate asOf) {
+        return compensationHistoryIndex.find("best", asOf, historyLoader).orElse(null);
+    }
+
+    private static Compensation compensation(String id, Double salary, LocalDate effectiveDate) {
+        return new Compensation(id, "best", salary, effectiveDate);
+    }
+}
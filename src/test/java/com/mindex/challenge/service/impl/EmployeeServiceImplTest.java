@@ -1,26 +1,37 @@
 package com.mindex.challenge.service.impl;
 
+import com.mindex.challenge.config.MongoConfig;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mindex.challenge.data.BulkResult;
 import com.mindex.challenge.data.Compensation;
 import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.data.MultiGetResult;
 import com.mindex.challenge.data.ReportingStructure;
 import com.mindex.challenge.service.EmployeeService;
+import com.github.benmanes.caffeine.cache.Cache;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static com.mindex.challenge.TestUtils.*;
 import static com.mindex.challenge.controller.EmployeeControllerTest.validate;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -29,6 +40,18 @@ public class EmployeeServiceImplTest {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Cache<String, Employee> employeeCache;
+
+    @Value("${challenge.mongo.backend:MEMORY}")
+    private MongoConfig.Backend mongoBackend;
+
     @Before
     public void setup() {
     }
@@ -62,6 +85,72 @@ public class EmployeeServiceImplTest {
         readEmployee.setPosition("Development Manager");
         Employee updatedEmployee = employeeService.update(readEmployee);
         assertEmployeeEquivalence(readEmployee, updatedEmployee);
+
+        // Make sure the update replaced the employee rather than adding a second copy
+        assertEmployeeEquivalence(updatedEmployee, employeeService.read(createdEmployee.getEmployeeId()));
+    }
+
+    @Test
+    public void testCreateAll_batches() throws Exception {
+        // Managers are sent after their reports, and a bad record sits in the middle of a batch
+        String employees = "{\"employeeId\": \"batch-0\"}"
+                           + "{\"employeeId\": \"batch-1\", \"directReports\": [{\"employeeId\": \"batch-0\"}]}"
+                           + "{\"employeeId\": \"batch-2\", \"directReports\": [{\"employeeId\": \"batch-1\"}]}"
+                           + "{\"employeeId\": []}"
+                           + "{\"employeeId\": \"batch-3\", \"directReports\": [{\"employeeId\": \"batch-2\"}]}";
+
+        Object batchSize = ReflectionTestUtils.getField(employeeService, "bulkBatchSize");
+        ReflectionTestUtils.setField(employeeService, "bulkBatchSize", 2);
+        try (MappingIterator<Employee> iterator = objectMapper.readerFor(Employee.class).readValues(employees)) {
+            List<BulkResult> results = employeeService.createAll(iterator);
+
+            assertEquals(5, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i, results.get(i).index());
+                assertEquals((i == 3) ? BulkResult.Status.FAILED : BulkResult.Status.CREATED, results.get(i).status());
+            }
+        } finally {
+            ReflectionTestUtils.setField(employeeService, "bulkBatchSize", batchSize);
+        }
+
+        assertEquals(3, employeeService.getReportingStructure(employeeService.read("batch-3")).numberOfReports());
+    }
+
+    @Test
+    public void testReadAll() {
+        Employee employee = new Employee();
+        employee.setEmployeeId("mget-" + System.nanoTime());
+        employee.setFirstName("Neil");
+        employee.setLastName("Aspinall");
+        employeeRepository.insert(employee);
+        assertNull(employeeCache.getIfPresent(employee.getEmployeeId()));
+
+        List<MultiGetResult> results = employeeService.readAll(Arrays.asList(employee.getEmployeeId(), null, MULTI_LEVEL_MGR));
+        assertEquals(3, results.size());
+        assertEquals("Aspinall", results.get(0).employee().getLastName());
+        assertFalse(results.get(1).found());
+        assertTrue(results.get(2).found());
+
+        // Misses are cached for the next read, and updates are seen
+        assertNotNull(employeeCache.getIfPresent(employee.getEmployeeId()));
+        employee.setPosition("Road Manager");
+        employeeService.update(employee);
+        assertEquals("Road Manager",
+                employeeService.readAll(List.of(employee.getEmployeeId())).get(0).employee().getPosition());
+    }
+
+    @Test
+    public void testRead_copiesCachedEmployee() {
+        Employee employee = employeeService.read(MULTI_LEVEL_MGR);
+        employee.setPosition("Changed without an update");
+        employee.getDirectReportIds().clear();
+        employeeService.readAll(List.of(MULTI_LEVEL_MGR)).get(0).employee().setLastName("Changed without an update");
+
+        Employee reread = employeeService.read(MULTI_LEVEL_MGR);
+        assertNotEquals("Changed without an update", reread.getPosition());
+        assertNotEquals("Changed without an update", reread.getLastName());
+        assertFalse(reread.getDirectReportIds().isEmpty());
+        assertNotNull(employeeCache.getIfPresent(MULTI_LEVEL_MGR));
     }
 
     /**
@@ -119,6 +208,192 @@ public class EmployeeServiceImplTest {
         validate(reportingStructure, employee.getEmployeeId(), 2);
     }
 
+    @Test
+    public void testGetReportingStructure_afterUpdate() {
+        Employee report = new Employee();
+        report.setFirstName("Stuart");
+        report.setLastName("Sutcliffe");
+        report = employeeService.create(report);
+
+        Employee manager = new Employee();
+        manager.setFirstName("Brian");
+        manager.setLastName("Epstein");
+        manager = employeeService.create(manager);
+
+        Employee managerStub = new Employee();
+        managerStub.setEmployeeId(manager.getEmployeeId());
+        validate(employeeService.getReportingStructure(managerStub), manager.getEmployeeId(), 0);
+
+        /*
+         * Give the manager a direct report who in turn manages Starr and Starr's team
+         */
+        Employee reportStub = new Employee();
+        reportStub.setEmployeeId(report.getEmployeeId());
+        manager.setDirectReports(Arrays.asList(reportStub));
+        employeeService.update(manager);
+
+        Employee starrStub = new Employee();
+        starrStub.setEmployeeId(DIRECT_ONLY_MGR);
+        report.setDirectReports(Arrays.asList(starrStub));
+        employeeService.update(report);
+
+        validate(employeeService.getReportingStructure(managerStub), manager.getEmployeeId(), 4);
+    }
+
+    @Test
+    public void testGetReportingStructure_cycle() {
+        Employee manager = new Employee();
+        manager.setFirstName("Allen");
+        manager.setLastName("Klein");
+        manager = employeeService.create(manager);
+
+        Employee report = new Employee();
+        report.setFirstName("Yoko");
+        report.setLastName("Ono");
+        report = employeeService.create(report);
+
+        /*
+         * Make the two employees report to each other
+         */
+        Employee managerStub = new Employee();
+        managerStub.setEmployeeId(manager.getEmployeeId());
+        Employee reportStub = new Employee();
+        reportStub.setEmployeeId(report.getEmployeeId());
+
+        manager.setDirectReports(Arrays.asList(reportStub));
+        employeeService.update(manager);
+        report.setDirectReports(Arrays.asList(managerStub));
+        employeeService.update(report);
+
+        validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 1);
+
+        /*
+         * The same cycle on employees that are not persisted
+         */
+        Employee unpersistedManager = new Employee();
+        unpersistedManager.setEmployeeId("27182818");
+        Employee unpersistedReport = new Employee();
+        unpersistedReport.setEmployeeId("28459045");
+        unpersistedManager.setDirectReports(Arrays.asList(unpersistedReport, unpersistedReport));
+        unpersistedReport.setDirectReports(Arrays.asList(unpersistedManager));
+
+        validate(employeeService.getReportingStructure(unpersistedManager), unpersistedManager.getEmployeeId(), 1);
+    }
+
+    @Test
+    public void testGetReportingStructure_persistedButNotIndexed() {
+        /*
+         * Save a manager straight to the repository so the reporting structure has to come from the database
+         */
+        Employee starrStub = new Employee();
+        starrStub.setEmployeeId(DIRECT_ONLY_MGR);
+        Employee mccartneyStub = new Employee();
+        mccartneyStub.setEmployeeId(MCCARTNEY_EMPLOYEE_ID);
+
+        Employee manager = new Employee();
+        manager.setEmployeeId("31415926");
+        manager.setFirstName("George");
+        manager.setLastName("Martin");
+        manager.setDirectReports(Arrays.asList(starrStub, mccartneyStub));
+        employeeRepository.insert(manager);
+
+        validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 4);
+    }
+
+    @Test
+    public void testGetReportingStructure_walkCacheStats() {
+        // Neither employee is indexed, so the walk reads the report through the cache
+        String prefix = "walk-" + System.nanoTime() + "-";
+        employeeRepository.insert(stub(prefix + "report"));
+        Employee manager = stub(prefix + "manager", prefix + "report");
+        employeeRepository.insert(manager);
+
+        long requests = employeeCache.stats().requestCount();
+        validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 1);
+        assertEquals(requests + 1, employeeCache.stats().requestCount());
+    }
+
+    /**
+     * The embedded server's $graphLookup doesn't keep track of the employees it has already reached and follows one
+     * level less than maxDepth, so counts with shared reports, cycles or a depth limit are only checked against a real
+     * MongoDB, e.g. with -Dchallenge.mongo.backend=EXTERNAL -Dchallenge.mongo.uri=mongodb://localhost:27017
+     */
+    @Test
+    public void testGetReportingStructure_aggregation() {
+        /*
+         * Save the employees straight to the repository so they aren't indexed and the count comes from $graphLookup
+         */
+        String prefix = "aggregation-" + System.nanoTime() + "-";
+        Employee manager = stub(prefix + "martin", prefix + "emerick", LENNON_EMPLOYEE_ID);
+        Employee engineer = stub(prefix + "emerick", prefix + "martin");
+        Employee epstein = stub(prefix + "epstein", prefix + "taylor", prefix + "barrow");
+        Employee taylor = stub(prefix + "taylor", prefix + "evans");
+        employeeRepository.insert(List.of(manager, engineer, epstein, taylor, stub(prefix + "barrow"), stub(prefix + "evans")));
+
+        Object aggregationSupported = ReflectionTestUtils.getField(employeeService, "aggregationSupported");
+        Object maxDepth = ReflectionTestUtils.getField(employeeService, "reportingMaxDepth");
+        ReflectionTestUtils.setField(employeeService, "aggregationSupported", true);
+        try {
+            // No levels are followed, which $graphLookup can't be asked for
+            ReflectionTestUtils.setField(employeeService, "reportingMaxDepth", 0);
+            validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 0);
+            ReflectionTestUtils.setField(employeeService, "reportingMaxDepth", maxDepth);
+
+            // A plain tree of reports
+            validate(employeeService.getReportingStructure(epstein), epstein.getEmployeeId(), 3);
+            validate(employeeService.getReportingStructure(taylor), taylor.getEmployeeId(), 1);
+            assertTrue((Boolean) ReflectionTestUtils.getField(employeeService, "aggregationSupported"));
+
+            assumeTrue("$graphLookup needs a real MongoDB", mongoBackend == MongoConfig.Backend.EXTERNAL);
+
+            // Emerick and Martin report to each other; Martin isn't one of his own reports
+            validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 6);
+            assertTrue((Boolean) ReflectionTestUtils.getField(employeeService, "aggregationSupported"));
+            validate(employeeService.getReportingStructure(engineer), engineer.getEmployeeId(), 6);
+
+            ReflectionTestUtils.setField(employeeService, "reportingMaxDepth", 1);
+            validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), 2);
+            validate(employeeService.getReportingStructure(epstein), epstein.getEmployeeId(), 2);
+        } finally {
+            ReflectionTestUtils.setField(employeeService, "aggregationSupported", aggregationSupported);
+            ReflectionTestUtils.setField(employeeService, "reportingMaxDepth", maxDepth);
+        }
+    }
+
+    @Test
+    public void testCreate_indexFailure() {
+        int expectedReports = 1 + employeeService.getReportingStructure(employeeService.read(MULTI_LEVEL_MGR))
+                                                 .numberOfReports();
+
+        OrgChartIndex orgChartIndex = (OrgChartIndex) ReflectionTestUtils.getField(employeeService, "orgChartIndex");
+        OrgChartIndex failingIndex = new OrgChartIndex() {
+            @Override
+            public void put(Employee employee) {
+                throw new IllegalStateException("Simulated index failure");
+            }
+        };
+        ReflectionTestUtils.setField(employeeService, "orgChartIndex", failingIndex);
+        Employee manager;
+        try {
+            manager = employeeService.create(stub(null, MULTI_LEVEL_MGR));
+
+            // The employee is still created, and the index is rebuilt with it from the repository
+            assertTrue(failingIndex.contains(manager.getEmployeeId()));
+            assertTrue(failingIndex.contains(MULTI_LEVEL_MGR));
+            validate(employeeService.getReportingStructure(manager), manager.getEmployeeId(), expectedReports);
+        } finally {
+            ReflectionTestUtils.setField(employeeService, "orgChartIndex", orgChartIndex);
+        }
+        orgChartIndex.put(manager);
+    }
+
+    private static Employee stub(String employeeId, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDirectReportIds(Arrays.asList(directReportIds));
+        return employee;
+    }
+
     /**
      * Note that the test relies on the data loaded from compensation_database.json so changes to that file have the
      * potential to break these tests.
@@ -170,6 +445,33 @@ public class EmployeeServiceImplTest {
         validate(compensation, MCCARTNEY_EMPLOYEE_ID, 100.0, LocalDate.now());
     }
 
+    @Test
+    public void testAddCompensation_currentCompensation() {
+        Employee testEmployee = new Employee();
+        testEmployee.setFirstName("Stuart");
+        testEmployee.setLastName("Sutcliffe");
+        Employee employee = employeeService.create(testEmployee);
+
+        // Remember that there is no compensation yet
+        assertTrue(employeeService.getCompensation(employee).isEmpty());
+
+        employeeService.addCompensation(employee, 100.0, LocalDate.of(1960, Month.JANUARY, 1));
+        employeeService.getCompensation(employee).ifPresentOrElse(
+                comp -> validate(comp, employee.getEmployeeId(), 100.0, LocalDate.of(1960, Month.JANUARY, 1)),
+                () -> fail("Expected Compensation record"));
+
+        // A back-dated raise doesn't replace the current compensation
+        employeeService.addCompensation(employee, 50.0, LocalDate.of(1959, Month.JANUARY, 1));
+        employeeService.getCompensation(employee).ifPresentOrElse(
+                comp -> validate(comp, employee.getEmployeeId(), 100.0, LocalDate.of(1960, Month.JANUARY, 1)),
+                () -> fail("Expected Compensation record"));
+
+        employeeService.addCompensation(employee, 200.0, LocalDate.of(1961, Month.APRIL, 10));
+        employeeService.getCompensation(employee).ifPresentOrElse(
+                comp -> validate(comp, employee.getEmployeeId(), 200.0, LocalDate.of(1961, Month.APRIL, 10)),
+                () -> fail("Expected Compensation record"));
+    }
+
     @Test(expected = RuntimeException.class)
     public void testAddCompensation_invalidEmployeeId() {
         Employee employee = new Employee();
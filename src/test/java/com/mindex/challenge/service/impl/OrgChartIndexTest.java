@@ -0,0 +1,364 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class OrgChartIndexTest {
+
+    private OrgChartIndex orgChartIndex;
+
+    @Before
+    public void setup() {
+        orgChartIndex = new OrgChartIndex();
+    }
+
+    @Test
+    public void testCountReports() {
+        // Load the managers before their reports to make sure forward references are resolved
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best", "harrison"),
+                                         employee("mccartney"),
+                                         employee("best"),
+                                         employee("harrison")));
+
+        assertEquals(4, orgChartIndex.countReports("lennon").getAsInt());
+        assertEquals(2, orgChartIndex.countReports("starr").getAsInt());
+        assertEquals(0, orgChartIndex.countReports("best").getAsInt());
+    }
+
+    @Test
+    public void testCountReports_notIndexed() {
+        orgChartIndex.put(employee("lennon", "mccartney"));
+
+        assertTrue(orgChartIndex.countReports("unknown").isEmpty());
+
+        // Referenced as a direct report but never indexed itself
+        assertFalse(orgChartIndex.contains("mccartney"));
+        assertTrue(orgChartIndex.countReports("mccartney").isEmpty());
+    }
+
+    @Test
+    public void testPut_replacesDirectReports() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best", "harrison")));
+        assertEquals(4, orgChartIndex.countReports("lennon").getAsInt());
+
+        orgChartIndex.put(employee("starr", "best"));
+        assertEquals(3, orgChartIndex.countReports("lennon").getAsInt());
+
+        orgChartIndex.put(employee("lennon"));
+        assertEquals(0, orgChartIndex.countReports("lennon").getAsInt());
+        assertEquals(1, orgChartIndex.countReports("starr").getAsInt());
+    }
+
+    @Test
+    public void testPut_updatesAncestors() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best"),
+                                         employee("best")));
+        assertEquals(3, orgChartIndex.countReports("lennon").getAsInt());
+
+        // Adding reports deep in the hierarchy is reflected all the way up
+        orgChartIndex.put(employee("best", "harrison", "sutcliffe"));
+        assertEquals(2, orgChartIndex.countReports("best").getAsInt());
+        assertEquals(3, orgChartIndex.countReports("starr").getAsInt());
+        assertEquals(5, orgChartIndex.countReports("lennon").getAsInt());
+
+        // Moving a report between managers
+        orgChartIndex.put(employee("best", "harrison"));
+        orgChartIndex.put(employee("mccartney", "sutcliffe"));
+        assertEquals(2, orgChartIndex.countReports("starr").getAsInt());
+        assertEquals(1, orgChartIndex.countReports("mccartney").getAsInt());
+        assertEquals(5, orgChartIndex.countReports("lennon").getAsInt());
+    }
+
+    @Test
+    public void testGetManagers() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best"),
+                                         employee("mccartney", "best")));
+
+        assertEquals(List.of("lennon"), orgChartIndex.getManagers("starr"));
+        assertEquals(2, orgChartIndex.getManagers("best").size());
+        assertTrue(orgChartIndex.getManagers("best").containsAll(List.of("starr", "mccartney")));
+        assertTrue(orgChartIndex.getManagers("lennon").isEmpty());
+        assertTrue(orgChartIndex.getManagers("unknown").isEmpty());
+
+        // Reassigning a report moves the back-pointer
+        orgChartIndex.put(employee("mccartney"));
+        assertEquals(List.of("starr"), orgChartIndex.getManagers("best"));
+    }
+
+    @Test
+    public void testLoad_largeHierarchy() {
+        // A deep chain would overflow the stack with a recursive walk
+        int depth = 100_000;
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            employees.add(employee("e" + i, "e" + (i + 1)));
+        }
+        orgChartIndex.load(employees);
+
+        assertEquals(depth, orgChartIndex.countReports("e0").getAsInt());
+        assertEquals(1, orgChartIndex.countReports("e" + (depth - 1)).getAsInt());
+
+        // Changing the bottom of the chain only walks the ancestor path
+        orgChartIndex.put(employee("e" + (depth - 1)));
+        assertEquals(depth - 1, orgChartIndex.countReports("e0").getAsInt());
+    }
+
+    @Test
+    public void testLoadWithoutCounts() {
+        orgChartIndex.loadWithoutCounts(Arrays.asList(employee("best", "harrison"),
+                                                      employee("starr", "best")));
+        orgChartIndex.loadWithoutCounts(Arrays.asList(employee("lennon", "mccartney", "starr")));
+
+        // Answered by walking until the counts are recomputed
+        assertEquals(4, orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get().reports());
+
+        orgChartIndex.recount();
+        assertEquals(4, orgChartIndex.countReports("lennon").getAsInt());
+        assertEquals(2, orgChartIndex.countReports("starr").getAsInt());
+    }
+
+    @Test
+    public void testCountReports_sharedReports() {
+        // Best reports to both Starr and McCartney
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best", "harrison"),
+                                         employee("mccartney", "best"),
+                                         employee("best", "sutcliffe")));
+
+        assertEquals(5, orgChartIndex.countReports("lennon").getAsInt());
+        ReportTraversal traversal = orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get();
+        assertEquals(1, traversal.duplicates());
+        assertFalse(traversal.cycle());
+        assertFalse(traversal.truncated());
+        assertEquals(3, traversal.depth());
+        assertTrue(traversal.walked());
+
+        // Once Best only has one manager again the materialized counts are used
+        orgChartIndex.put(employee("mccartney"));
+        assertEquals(0, orgChartIndex.countReports("mccartney").getAsInt());
+        assertEquals(5, orgChartIndex.countReports("lennon").getAsInt());
+        traversal = orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get();
+        assertEquals(0, traversal.duplicates());
+        assertEquals(-1, traversal.depth());
+        assertFalse(traversal.walked());
+    }
+
+    @Test
+    public void testCountReports_sharedReportElsewhere() {
+        // Best reports to both Starr and Epstein
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("mccartney", "linda"),
+                                         employee("starr", "best"),
+                                         employee("epstein", "martin", "best")));
+
+        // Only the managers above Best have to walk
+        assertTrue(traverse("lennon").walked());
+        assertTrue(traverse("starr").walked());
+        assertTrue(traverse("epstein").walked());
+        assertFalse(traverse("mccartney").walked());
+
+        // Nor does a cycle elsewhere affect an unrelated team
+        orgChartIndex.put(employee("harrison", "clapton"));
+        orgChartIndex.put(employee("sutcliffe", "sutcliffe"));
+        orgChartIndex.put(employee("harrison", "clapton", "preston"));
+        assertFalse(traverse("harrison").walked());
+        assertEquals(2, traverse("harrison").reports());
+        assertTrue(traverse("sutcliffe").cycle());
+
+        // A put below Best isn't counted incrementally into Starr and Epstein, but is seen by their walks
+        orgChartIndex.put(employee("best", "pete"));
+        assertEquals(5, traverse("lennon").reports());
+        assertEquals(3, traverse("epstein").reports());
+    }
+
+    @Test
+    public void testPut_matchesLoad() {
+        // Random reorgs, including shared reports and cycles, must leave the index as loading the result would
+        Random random = new Random(7);
+        int employeeCount = 30;
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String[] reports = random.ints(random.nextInt(4), 0, employeeCount)
+                                     .mapToObj(report -> "e" + report)
+                                     .toArray(String[]::new);
+            Employee employee = employee("e" + random.nextInt(employeeCount), reports);
+            orgChartIndex.put(employee);
+            employees.removeIf(existing -> existing.getEmployeeId().equals(employee.getEmployeeId()));
+            employees.add(employee);
+
+            OrgChartIndex loaded = new OrgChartIndex();
+            loaded.load(employees);
+            for (int node = 0; node < employeeCount; node++) {
+                assertEquals("e" + node + " after put " + i,
+                             loaded.traverse("e" + node, Integer.MAX_VALUE, Integer.MAX_VALUE),
+                             orgChartIndex.traverse("e" + node, Integer.MAX_VALUE, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    @Test
+    public void testCountReports_cycle() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best")));
+
+        // Best becomes Lennon's manager
+        orgChartIndex.put(employee("best", "lennon"));
+
+        ReportTraversal traversal = orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get();
+        assertTrue(traversal.cycle());
+        assertEquals(3, traversal.reports());
+        assertEquals(3, orgChartIndex.countReports("best").getAsInt());
+
+        // Employees reporting to themselves
+        orgChartIndex.put(employee("sutcliffe", "sutcliffe"));
+        assertEquals(0, orgChartIndex.countReports("sutcliffe").getAsInt());
+
+        // Breaking the cycle brings back the materialized counts
+        orgChartIndex.put(employee("best"));
+        orgChartIndex.put(employee("sutcliffe"));
+        assertEquals(3, orgChartIndex.countReports("lennon").getAsInt());
+        assertFalse(orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get().cycle());
+
+        // A later change below Lennon isn't mistaken for another cycle
+        orgChartIndex.put(employee("mccartney", "harrison"));
+        assertEquals(4, orgChartIndex.countReports("lennon").getAsInt());
+        assertFalse(orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).get().walked());
+    }
+
+    @Test
+    public void testClear() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr")));
+        orgChartIndex.clear();
+
+        assertFalse(orgChartIndex.contains("lennon"));
+        assertFalse(orgChartIndex.traverse("lennon", Integer.MAX_VALUE, Integer.MAX_VALUE).isPresent());
+        assertTrue(orgChartIndex.getManagers("starr").isEmpty());
+
+        orgChartIndex.put(employee("starr", "best"));
+        assertEquals(1, orgChartIndex.countReports("starr").getAsInt());
+    }
+
+    @Test
+    public void testTraverse_limits() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best", "harrison"),
+                                         employee("best", "lennon")));
+
+        ReportTraversal traversal = orgChartIndex.traverse("lennon", 1, Integer.MAX_VALUE).get();
+        assertEquals(2, traversal.reports());
+        assertTrue(traversal.truncated());
+
+        traversal = orgChartIndex.traverse("lennon", Integer.MAX_VALUE, 3).get();
+        assertEquals(3, traversal.reports());
+        assertTrue(traversal.truncated());
+    }
+
+    @Test
+    public void testTraverse_multipleEmployees() {
+        orgChartIndex.load(Arrays.asList(employee("lennon", "mccartney", "starr"),
+                                         employee("starr", "best", "harrison"),
+                                         employee("mccartney")));
+
+        ReportTraversal traversal = orgChartIndex.traverse(Arrays.asList("starr", "mccartney", "best", "unknown"),
+                                                           Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(4, traversal.reports());
+        assertEquals(0, traversal.duplicates());
+    }
+
+    @Test
+    public void testTraverseInParallel() {
+        // A wide, shared hierarchy so the walk can't be answered from the materialized counts
+        List<Employee> employees = new ArrayList<>();
+        Random random = new Random(42);
+        int employeeCount = 20_000;
+        for (int i = 0; i < employeeCount; i++) {
+            String[] reports = random.ints(random.nextInt(8), i + 1, employeeCount + 1)
+                                     .mapToObj(report -> "e" + report)
+                                     .toArray(String[]::new);
+            employees.add(employee("e" + i, reports));
+        }
+        employees.add(employee("e0", IntStream.range(1, 100).mapToObj(report -> "e" + report).toArray(String[]::new)));
+        employees.add(employee("e1", "e2", "e0"));
+        orgChartIndex.load(employees);
+
+        ReportTraversal sequential = orgChartIndex.traverse("e0", Integer.MAX_VALUE, Integer.MAX_VALUE).get();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int threshold : new int[] { 1, 4, 1_000_000 }) {
+                ReportTraversal parallel =
+                        orgChartIndex.traverseInParallel("e0", Integer.MAX_VALUE, Integer.MAX_VALUE, pool, threshold).get();
+                assertEquals(sequential.reports(), parallel.reports());
+                assertEquals(sequential.duplicates(), parallel.duplicates());
+                assertTrue(parallel.cycle());
+            }
+
+            ReportTraversal truncated = orgChartIndex.traverseInParallel("e0", Integer.MAX_VALUE, 100, pool, 4).get();
+            assertEquals(100, truncated.reports());
+            assertTrue(truncated.truncated());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testTraverseInParallel_maxDepth() {
+        // Every manager's reports are on the level below, and the shared report is on the same level for both managers
+        List<Employee> employees = new ArrayList<>();
+        employees.add(employee("root", IntStream.range(0, 100).mapToObj(manager -> "m" + manager).toArray(String[]::new)));
+        for (int manager = 0; manager < 100; manager++) {
+            employees.add(employee("m" + manager, "m" + manager + "a", "m" + manager + "b"));
+            employees.add(employee("m" + manager + "a", "m" + manager + "a0"));
+            employees.add(employee("m" + manager + "a0", "m" + manager + "a00"));
+        }
+        employees.add(employee("m0", "m0a", "m0b", "shared"));
+        employees.add(employee("m1", "m1a", "m1b", "shared"));
+        orgChartIndex.load(employees);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int maxDepth = 1; maxDepth <= 5; maxDepth++) {
+                ReportTraversal sequential = orgChartIndex.traverse("root", maxDepth, Integer.MAX_VALUE).get();
+                ReportTraversal parallel = orgChartIndex.traverseInParallel("root", maxDepth, Integer.MAX_VALUE, pool, 4).get();
+                assertEquals(sequential.reports(), parallel.reports());
+                assertEquals(sequential.truncated(), parallel.truncated());
+            }
+
+            ReportTraversal parallel = orgChartIndex.traverseInParallel("root", 3, Integer.MAX_VALUE, pool, 4).get();
+            assertEquals(100 + 201 + 100, parallel.reports());
+            assertTrue(parallel.truncated());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ReportTraversal traverse(String employeeId) {
+        return orgChartIndex.traverse(employeeId, Integer.MAX_VALUE, Integer.MAX_VALUE).get();
+    }
+
+    static Employee employee(String employeeId, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDirectReports(Arrays.stream(directReportIds)
+                                        .map(id -> {
+                                            Employee directReport = new Employee();
+                                            directReport.setEmployeeId(id);
+                                            return directReport;
+                                        })
+                                        .toList());
+        return employee;
+    }
+}
@@ -0,0 +1,88 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.ReactiveEmployeeService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeServiceImplTest {
+
+    @Autowired
+    private ReactiveEmployeeService employeeService;
+
+    @Test
+    public void testGetReportingStructure() {
+        assertEquals(4, numberOfReports(employeeService.read(MULTI_LEVEL_MGR).block()));
+        assertEquals(2, numberOfReports(employeeService.read(DIRECT_ONLY_MGR).block()));
+        assertEquals(0, numberOfReports(employeeService.read(NO_REPORTS_MGR).block()));
+    }
+
+    @Test
+    public void testGetReportingStructure_sharedReportsAndCycle() {
+        // An unpersisted report is counted, but only its ID is stored so the reports listed in its stub aren't
+        Employee sutcliffe = stub("sutcliffe-" + System.nanoTime(), stub(null), stub(null));
+        Employee epstein = employeeService.create(employee("Brian", "Epstein",
+                stub(MULTI_LEVEL_MGR), stub(DIRECT_ONLY_MGR), sutcliffe, stub(null))).block();
+        assertEquals(7, numberOfReports(epstein));
+
+        // Epstein becomes his own indirect report
+        Employee klein = employeeService.create(employee("Allen", "Klein", stub(epstein.getEmployeeId()))).block();
+        epstein.setDirectReports(Arrays.asList(stub(klein.getEmployeeId()), stub(MULTI_LEVEL_MGR)));
+        employeeService.update(epstein).block();
+        assertEquals(6, numberOfReports(klein));
+    }
+
+    @Test
+    public void testCompensation() {
+        Employee employee = employeeService.create(employee("Pete", "Best")).block();
+        assertNull(employeeService.getCompensation(employee).block());
+
+        employeeService.addCompensation(employee, 1000.0, LocalDate.of(1960, Month.AUGUST, 1)).block();
+        employeeService.addCompensation(employee, 2000.0, LocalDate.of(1962, Month.JANUARY, 1)).block();
+        employeeService.addCompensation(employee, 1500.0, LocalDate.of(1961, Month.JANUARY, 1)).block();
+
+        assertEquals(2000.0, employeeService.getCompensation(employee).block().salary(), 0);
+        Compensation asOf = employeeService.getCompensation(employee, LocalDate.of(1961, Month.JUNE, 1)).block();
+        assertEquals(1500.0, asOf.salary(), 0);
+        assertNull(employeeService.getCompensation(employee, LocalDate.of(1960, Month.JANUARY, 1)).block());
+
+        Employee unknown = stub("unknown");
+        assertThrows(RuntimeException.class,
+                () -> employeeService.addCompensation(unknown, 1000.0, LocalDate.now()).block());
+    }
+
+    private int numberOfReports(Employee employee) {
+        return employeeService.getReportingStructure(employee).block().numberOfReports();
+    }
+
+    private static Employee employee(String firstName, String lastName, Employee... directReports) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDirectReports(List.of(directReports));
+        return employee;
+    }
+
+    private static Employee stub(String employeeId, Employee... directReports) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setDirectReports(List.of(directReports));
+        return employee;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mindex.challenge.service.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        singleFlight = new SingleFlight<>();
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testExecute_coalesces() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> {
+            computations.incrementAndGet();
+            await(release);
+            return "lennon";
+        });
+        waitForCoalescedCalls(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("lennon", result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+
+        // Nothing is kept once the computation is done
+        assertEquals("starr", singleFlight.execute("key", () -> "starr"));
+    }
+
+    @Test
+    public void testExecute_sharesExceptions() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callConcurrently(() -> {
+            await(release);
+            throw new IllegalStateException("Invalid employeeId");
+        });
+        waitForCoalescedCalls(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("Expected the computation's exception");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testForget() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor = Executors.newSingleThreadExecutor();
+        Future<String> running = executor.submit(() -> singleFlight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            return "before";
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // A caller arriving after the write doesn't get the result computed before it
+        singleFlight.forget("key");
+        assertEquals("after", singleFlight.execute("key", () -> "after"));
+
+        release.countDown();
+        assertEquals("before", running.get(10, TimeUnit.SECONDS));
+    }
+
+    private List<Future<String>> callConcurrently(Supplier<String> computation) {
+        executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", computation)));
+        }
+        return results;
+    }
+
+    private void waitForCoalescedCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (singleFlight.getCoalescedCalls() < expected) {
+            assertTrue("Callers weren't coalesced", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.dao.CompensationRepository;
+import com.mindex.challenge.dao.EmployeeRepository;
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.SnapshotService;
+import com.mindex.challenge.snapshot.BinarySnapshot;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class SnapshotServiceImplTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CompensationRepository compensationRepository;
+
+    @Test
+    public void testDump() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("challenge.snapshot");
+        BinarySnapshot.Summary summary = snapshotService.dump(file);
+
+        List<Employee> employees = new ArrayList<>();
+        List<Compensation> compensations = new ArrayList<>();
+        assertEquals(summary, BinarySnapshot.read(file, 1000, employees::addAll, compensations::addAll));
+
+        Employee lennon = employees.stream()
+                                   .filter(employee -> MULTI_LEVEL_MGR.equals(employee.getEmployeeId()))
+                                   .findFirst()
+                                   .orElseThrow();
+        assertEquals(2, lennon.getDirectReports().size());
+        assertTrue(compensations.stream().anyMatch(compensation -> BEST_EMPLOYEE_ID.equals(compensation.employeeId())));
+    }
+
+    @Test
+    public void testDump_everyRecord() throws Exception {
+        Employee manager = new Employee();
+        manager.setEmployeeId("snapshot-" + System.nanoTime());
+        manager.setLastName("Martin");
+        Employee report = new Employee();
+        report.setEmployeeId(LENNON_EMPLOYEE_ID);
+        manager.setDirectReports(List.of(report));
+        employeeRepository.insert(manager);
+        compensationRepository.insert(new Compensation(manager.getEmployeeId() + "-pay", manager.getEmployeeId(), 1.0, null));
+
+        Path file = temporaryFolder.getRoot().toPath().resolve("challenge.snapshot");
+        BinarySnapshot.Summary summary = snapshotService.dump(file);
+        assertEquals(employeeRepository.count(), summary.employees());
+        assertEquals(compensationRepository.count(), summary.compensations());
+
+        // Nothing but the snapshot is left behind
+        try (Stream<Path> files = Files.list(temporaryFolder.getRoot().toPath())) {
+            assertEquals(List.of(file), files.toList());
+        }
+
+        List<Employee> employees = new ArrayList<>();
+        List<Compensation> compensations = new ArrayList<>();
+        BinarySnapshot.read(file, 1000, employees::addAll, compensations::addAll);
+        Employee dumped = employees.stream()
+                                   .filter(employee -> manager.getEmployeeId().equals(employee.getEmployeeId()))
+                                   .findFirst()
+                                   .orElseThrow();
+        assertEquals("Martin", dumped.getLastName());
+        assertEquals(List.of(LENNON_EMPLOYEE_ID), dumped.getDirectReportIds());
+        assertTrue(compensations.stream().anyMatch(compensation -> manager.getEmployeeId().equals(compensation.employeeId())));
+    }
+}
@@ -0,0 +1,100 @@
+package com.mindex.challenge.service.impl;
+
+import com.mindex.challenge.data.Employee;
+import com.mindex.challenge.service.EmployeeService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.mindex.challenge.TestUtils.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Makes sure the service never blocks on the database while holding a monitor, which would pin the carrier thread of
+ * a virtual thread when spring.threads.virtual.enabled is set.  Java Flight Recorder reports every park of a pinned
+ * virtual thread, so the service calls are run on virtual threads while recording and no such event may show up.
+ * Skipped on runtimes without virtual threads.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class VirtualThreadPinningTest {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Before
+    public void setup() {
+        assumeTrue("Virtual threads need Java 21", Runtime.version().feature() >= 21);
+    }
+
+    @Test
+    public void testServiceDoesNotPin() throws Exception {
+        Path recordingFile = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            ExecutorService executor = newVirtualThreadPerTaskExecutor();
+            try {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    calls.add(executor.submit(this::exerciseService));
+                }
+                for (Future<?> call : calls) {
+                    call.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            recording.stop();
+            recording.dump(recordingFile);
+
+            List<RecordedEvent> pinned = RecordingFile.readAllEvents(recordingFile).stream()
+                    .filter(event -> event.getEventType().getName().equals(PINNED_EVENT))
+                    .toList();
+            assertTrue("Virtual threads were pinned: " + pinned, pinned.isEmpty());
+        } finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    /**
+     * Runs the calls that go to the database on a cache miss.
+     */
+    private void exerciseService() {
+        Employee employee = new Employee();
+        employee.setFirstName("Pete");
+        employee.setLastName("Best");
+        employee = employeeService.create(employee);
+
+        employeeService.read(employee.getEmployeeId());
+        employeeService.getCompensation(employee);
+        employeeService.addCompensation(employee, 50000.0, LocalDate.of(2020, 1, 1));
+        employeeService.getCompensation(employee, LocalDate.of(2021, 1, 1));
+        employeeService.getReportingStructure(employeeService.read(MULTI_LEVEL_MGR));
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+        // Looked up reflectively so the test still compiles for Java 17
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+}
@@ -0,0 +1,100 @@
+package com.mindex.challenge.snapshot;
+
+import com.mindex.challenge.data.Compensation;
+import com.mindex.challenge.data.Employee;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinarySnapshotTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteRead() throws Exception {
+        List<Employee> employees = Arrays.asList(
+                employee("lennon", "John", "Lennon", "Development Manager", "Engineering", "mccartney", "starr"),
+                employee("mccartney", "Paul", "McCartney", "Developer I", "Engineering"),
+                employee("starr", "Ringo", "Starr", "Developer V", "Engineering", "best"),
+                employee("best", null, "Best", null, null));
+        List<Compensation> compensations = Arrays.asList(
+                new Compensation("c1", "best", 10000.0, LocalDate.of(1965, Month.MARCH, 8)),
+                new Compensation("c2", "best", 12000.5, LocalDate.of(1966, Month.DECEMBER, 5)),
+                new Compensation("c3", "starr", null, null),
+                new Compensation("c4", "lennon", 1.0, LocalDate.of(1900, Month.JANUARY, 1)));
+
+        Path file = temporaryFolder.getRoot().toPath().resolve("challenge.snapshot");
+        BinarySnapshot.Summary written = BinarySnapshot.write(file, employees, compensations);
+        assertEquals(4, written.employees());
+        assertEquals(4, written.compensations());
+        assertEquals(Files.size(file), written.bytes());
+
+        List<List<Employee>> employeeBatches = new ArrayList<>();
+        List<Compensation> readCompensations = new ArrayList<>();
+        BinarySnapshot.Summary read = BinarySnapshot.read(file, 3, employeeBatches::add, readCompensations::addAll);
+        assertEquals(written, read);
+
+        // Batches of three
+        assertEquals(2, employeeBatches.size());
+        List<Employee> readEmployees = new ArrayList<>();
+        employeeBatches.forEach(readEmployees::addAll);
+
+        for (int i = 0; i < employees.size(); i++) {
+            Employee expected = employees.get(i);
+            Employee actual = readEmployees.get(i);
+            assertEquals(expected.getEmployeeId(), actual.getEmployeeId());
+            assertEquals(expected.getFirstName(), actual.getFirstName());
+            assertEquals(expected.getLastName(), actual.getLastName());
+            assertEquals(expected.getPosition(), actual.getPosition());
+            assertEquals(expected.getDepartment(), actual.getDepartment());
+            assertEquals(reportIds(expected), reportIds(actual));
+        }
+        assertEquals(compensations, readCompensations);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_notSnapshot() throws Exception {
+        Path file = temporaryFolder.newFile().toPath();
+        Files.writeString(file, "[{\"employeeId\": \"lennon\"}]");
+
+        BinarySnapshot.read(file, 10, employees -> {}, compensations -> {});
+    }
+
+    private static Employee employee(String employeeId, String firstName, String lastName, String position,
+                                     String department, String... directReportIds) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(employeeId);
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setPosition(position);
+        employee.setDepartment(department);
+        if (directReportIds.length > 0) {
+            employee.setDirectReports(Arrays.stream(directReportIds)
+                                            .map(id -> {
+                                                Employee directReport = new Employee();
+                                                directReport.setEmployeeId(id);
+                                                return directReport;
+                                            })
+                                            .toList());
+        }
+        return employee;
+    }
+
+    private static List<String> reportIds(Employee employee) {
+        return (employee.getDirectReports() == null) ? Collections.emptyList()
+                : employee.getDirectReports().stream().map(Employee::getEmployeeId).toList();
+    }
+}